@@ -0,0 +1,46 @@
+package org.deeplearning4j.rl4j.mdp;
+
+import org.deeplearning4j.rl4j.space.BufferEncodable;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Conversion of the observations to INDArrays. A BufferEncodable is written
+ * directly in the memory of the INDArray (when it holds floats), any other
+ * Encodable goes through its toArray().
+ */
+public class Observations {
+
+    private Observations() {
+    }
+
+    /**
+     * @param obs observation
+     * @param shape shape of the observation space
+     * @return the observation, a row vector if the shape has a single dimension
+     */
+    public static INDArray toINDArray(Encodable obs, int[] shape) {
+        if (obs instanceof BufferEncodable && Nd4j.dataType() == DataBuffer.Type.FLOAT) {
+            INDArray arr = Nd4j.create(shape.length == 1 ? new int[]{1, shape[0]} : shape);
+            ((BufferEncodable) obs).encode(arr.data().asNioFloat(), arr.offset());
+            return arr;
+        }
+        INDArray arr = Nd4j.create(obs.toArray());
+        return shape.length == 1 ? arr : arr.reshape(shape);
+    }
+
+    /**
+     * Write an observation in an existing INDArray
+     * @param obs observation
+     * @param to contiguous c ordered INDArray of the size of the observation, by example a row of a batch
+     */
+    public static void write(Encodable obs, INDArray to) {
+        if (obs instanceof BufferEncodable && to.data().dataType() == DataBuffer.Type.FLOAT)
+            ((BufferEncodable) obs).encode(to.data().asNioFloat(), to.offset());
+        else
+            to.assign(Nd4j.create(obs.toArray()).reshape(to.shape()));
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.deeplearning4j.rl4j.mdp;
+
+import org.deeplearning4j.gym.StepReply;
+import org.deeplearning4j.rl4j.space.ActionSpace;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.space.ObservationSpace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.List;
+
+/**
+ * VectorMDP of N copies of an MDP made by newInstance(),
+ * stepped one after the other on the calling thread.
+ *
+ * The MDP given is the first environment.
+ */
+public class SerialVectorMDP<O extends Encodable, A, AS extends ActionSpace<A>> implements VectorMDP<O, A, AS> {
+
+    final private MDP<O, A, AS>[] envs;
+    final private int[] shape;
+    final private int[] batchShape;
+
+    @SuppressWarnings("unchecked")
+    public SerialVectorMDP(MDP<O, A, AS> mdp, int numEnvs) {
+        if (numEnvs < 1)
+            throw new IllegalArgumentException("at least one environment is needed");
+        envs = (MDP<O, A, AS>[]) new MDP[numEnvs];
+        envs[0] = mdp;
+        for (int i = 1; i < numEnvs; i++) {
+            envs[i] = mdp.newInstance();
+        }
+
+        shape = mdp.getObservationSpace().getShape();
+        int length = 1;
+        for (int dim : shape)
+            length *= dim;
+        if (shape.length == 1) {
+            batchShape = new int[]{numEnvs, length};
+        } else {
+            batchShape = new int[shape.length + 1];
+            batchShape[0] = numEnvs;
+            System.arraycopy(shape, 0, batchShape, 1, shape.length);
+        }
+    }
+
+    public int getNumEnvs() {
+        return envs.length;
+    }
+
+    public ObservationSpace<O> getObservationSpace() {
+        return envs[0].getObservationSpace();
+    }
+
+    public AS getActionSpace() {
+        return envs[0].getActionSpace();
+    }
+
+    /**
+     * @return the environment i
+     */
+    public MDP<O, A, AS> getEnv(int i) {
+        return envs[i];
+    }
+
+    public INDArray reset() {
+        INDArray observations = Nd4j.create(batchShape);
+        for (int i = 0; i < envs.length; i++) {
+            Observations.write(envs[i].reset(), row(observations, i));
+        }
+        return observations;
+    }
+
+    public VectorStepReply step(List<A> actions) {
+        INDArray observations = Nd4j.create(batchShape);
+        double[] rewards = new double[envs.length];
+        boolean[] dones = new boolean[envs.length];
+        INDArray[] lastObservations = new INDArray[envs.length];
+
+        for (int i = 0; i < envs.length; i++) {
+            StepReply<O> stepReply = envs[i].step(actions.get(i));
+            rewards[i] = stepReply.getReward();
+            dones[i] = stepReply.isDone();
+            lastObservations[i] = Observations.toINDArray(stepReply.getObservation(), shape);
+            if (dones[i])
+                Observations.write(envs[i].reset(), row(observations, i));
+            else
+                row(observations, i).assign(lastObservations[i]);
+        }
+
+        return new VectorStepReply(observations, rewards, dones, lastObservations);
+    }
+
+    public void close() {
+        for (MDP<O, A, AS> env : envs) {
+            env.close();
+        }
+    }
+
+    private static INDArray row(INDArray batch, int i) {
+        return batch.rank() > 2 ? batch.slice(i) : batch.getRow(i);
+    }
+
+}
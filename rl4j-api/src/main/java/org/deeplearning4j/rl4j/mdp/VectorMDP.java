@@ -0,0 +1,40 @@
+package org.deeplearning4j.rl4j.mdp;
+
+import org.deeplearning4j.rl4j.space.ActionSpace;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.space.ObservationSpace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.List;
+
+/**
+ * N environments stepped together, such that a policy can choose
+ * the N next actions with a single forward pass.
+ *
+ * Observations are batched in a single array of N rows (observations of
+ * shape [k] are rows of length k, other observations keep their shape).
+ * An environment whose episode is done is reset automatically: its row
+ * is then the first observation of the new episode.
+ */
+public interface VectorMDP<O extends Encodable, A, AS extends ActionSpace<A>> {
+
+    int getNumEnvs();
+
+    ObservationSpace<O> getObservationSpace();
+
+    AS getActionSpace();
+
+    /**
+     * @return the first observations of all the environments
+     */
+    INDArray reset();
+
+    /**
+     * @param actions one action per environment
+     * @return the batched observations, rewards and done flags
+     */
+    VectorStepReply step(List<A> actions);
+
+    void close();
+
+}
@@ -0,0 +1,49 @@
+package org.deeplearning4j.rl4j.mdp;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Container for the data returned after a step of a VectorMDP
+ */
+public class VectorStepReply {
+
+    final private INDArray observations;
+    final private double[] rewards;
+    final private boolean[] dones;
+    final private INDArray[] lastObservations;
+
+    public VectorStepReply(INDArray observations, double[] rewards, boolean[] dones, INDArray[] lastObservations) {
+        this.observations = observations;
+        this.rewards = rewards;
+        this.dones = dones;
+        this.lastObservations = lastObservations;
+    }
+
+    /**
+     * @return next observations, the first observation of the next episode for the environments done
+     */
+    public INDArray getObservations() {
+        return observations;
+    }
+
+    public double[] getRewards() {
+        return rewards;
+    }
+
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    public boolean isDone(int i) {
+        return dones[i];
+    }
+
+    /**
+     * @param i index of the environment
+     * @return the observation on which the episode ended if it is done, the next observation otherwise
+     */
+    public INDArray getLastObservation(int i) {
+        return lastObservations[i];
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.deeplearning4j.rl4j.space;
+
+import java.nio.FloatBuffer;
+
+/**
+ * An Encodable that writes itself into a buffer, so that the observations go
+ * straight into the INDArrays fed to the networks, without the intermediate
+ * double[] of toArray() (see Observations in org.deeplearning4j.rl4j.mdp).
+ */
+public interface BufferEncodable extends Encodable {
+
+    /**
+     * Write the observation, in the order of toArray(), with absolute puts
+     * (the position of the buffer does not move)
+     * @param buffer buffer to write in
+     * @param offset index of the first value
+     */
+    void encode(FloatBuffer buffer, int offset);
+
+}
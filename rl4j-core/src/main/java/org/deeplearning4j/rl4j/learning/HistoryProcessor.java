@@ -3,14 +3,15 @@ package org.deeplearning4j.rl4j.learning;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
 import org.bytedeco.javacv.*;
 import org.datavec.image.loader.NativeImageLoader;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplayBatch;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.compression.BasicNDArrayCompressor;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 
-import static org.bytedeco.javacpp.avcodec.AV_CODEC_ID_H264;
 import static org.bytedeco.javacpp.opencv_core.*;
 import static org.bytedeco.javacpp.opencv_imgproc.*;
 
@@ -18,73 +19,62 @@ import static org.bytedeco.javacpp.opencv_imgproc.*;
  * @author rubenfiszel (ruben.fiszel@epfl.ch) on 7/27/16.
  *
  * An IHistoryProcessor implementation using JavaCV
+ *
+ * The stacked history is kept in a preallocated buffer of 2 * historyLength frames
+ * in which every frame is written twice, at k and k + historyLength (k being its
+ * number modulo historyLength): the historyLength frames following k are then
+ * the history in order, and are returned as a view without any copy.
  */
 public class HistoryProcessor implements IHistoryProcessor {
 
     final private Logger log = LoggerFactory.getLogger("HistoryProcessor");
 
     final private Configuration conf;
-    final private OpenCVFrameConverter openCVFrameConverter = new OpenCVFrameConverter.ToMat();
     private CircularFifoQueue<INDArray> history;
-    private FFmpegFrameRecorder fmpegFrameRecorder = null;
+    final private INDArray stacked;
+    private int next = 0;
+    private VideoEncoder videoEncoder = null;
     private static BasicNDArrayCompressor compressor = BasicNDArrayCompressor.getInstance().setDefaultCompression("UINT8");
 
 
     public HistoryProcessor(Configuration conf) {
         this.conf = conf;
         history = new CircularFifoQueue<>(conf.getHistoryLength());
+        stacked = Nd4j.create(2 * conf.getHistoryLength(), conf.getCroppingHeight(), conf.getCroppingWidth());
     }
 
 
     public void add(INDArray obs) {
         INDArray processed = transform(obs);
-        history.add(processed);
+        int length = conf.getHistoryLength();
+        stacked.slice(next).assign(processed).muli(1 / 256f);
+        stacked.slice(next + length).assign(stacked.slice(next));
+        next = (next + 1) % length;
+        history.add(compressor.compress(processed.reshape(1, conf.getCroppingHeight(), conf.getCroppingWidth())));
     }
 
     public void startMonitor(String filename) {
         stopMonitor();
-        fmpegFrameRecorder = new FFmpegFrameRecorder(filename, 800, 600, 0);
-        fmpegFrameRecorder.setVideoCodec(AV_CODEC_ID_H264);
-        fmpegFrameRecorder.setFrameRate(35.0);
-        fmpegFrameRecorder.setVideoBitrate(1000000);
-        try {
-            log.info("Started monitoring: " + filename);
-            fmpegFrameRecorder.start();
-        } catch (FrameRecorder.Exception e) {
-            e.printStackTrace();
-        }
+        videoEncoder = new VideoEncoder(filename, conf.getMonitorQueueSize(), conf.getMonitorDropPolicy());
+        videoEncoder.start();
     }
 
+    /**
+     * Does not wait for the video to be encoded, the encoder finishes it in the background
+     */
     public void stopMonitor() {
-        if (fmpegFrameRecorder != null) {
-            try {
-                fmpegFrameRecorder.stop();
-                fmpegFrameRecorder.release();
-                log.info("Stopped monitoring");
-            } catch (FrameRecorder.Exception e) {
-                e.printStackTrace();
-            }
-        }
-        fmpegFrameRecorder = null;
+        if (videoEncoder != null)
+            videoEncoder.finish();
+        videoEncoder = null;
     }
 
     public boolean isMonitoring() {
-        return fmpegFrameRecorder != null;
+        return videoEncoder != null;
     }
 
     public void record(INDArray raw) {
-        if (fmpegFrameRecorder != null) {
-            int[] shape = raw.shape();
-            Mat ocvmat = new Mat(shape[0], shape[1], CV_32FC(3), raw.data().pointer());
-            Mat cvmat = new Mat(shape[0], shape[1], CV_8UC(3));
-            ocvmat.convertTo(cvmat, CV_8UC(3));
-            Frame frame = openCVFrameConverter.convert(cvmat);
-            try {
-                fmpegFrameRecorder.record(frame);
-            } catch (FrameRecorder.Exception e) {
-                e.printStackTrace();
-            }
-        }
+        if (videoEncoder != null)
+            videoEncoder.record(raw);
     }
 
     @Override
@@ -100,6 +90,10 @@ public class HistoryProcessor implements IHistoryProcessor {
         return array;
     }
 
+    public INDArray getStackedHistory() {
+        return ExpReplayBatch.rows(stacked, next, next + conf.getHistoryLength());
+    }
+
 
     private INDArray transform(INDArray raw) {
         int[] shape = raw.shape();
@@ -122,8 +116,7 @@ public class HistoryProcessor implements IHistoryProcessor {
             throw new IllegalStateException("Illegal State, can't proceed", e);
         }
 
-        out = out.reshape(1, conf.getCroppingHeight(), conf.getCroppingWidth());
-        return compressor.compress(out);
+        return out.reshape(conf.getCroppingHeight(), conf.getCroppingWidth());
     }
 
     public void show(Mat m) {
@@ -1,5 +1,6 @@
 package org.deeplearning4j.rl4j.learning;
 
+import org.deeplearning4j.rl4j.learning.transform.ObservationPipeline;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 /**
@@ -11,10 +12,26 @@ import org.nd4j.linalg.api.ndarray.INDArray;
  */
 public interface IHistoryProcessor {
 
+    /**
+     * @param conf configuration of the history processor
+     * @return a JavaHistoryProcessor if conf.isPureJava() or conf has a pipeline, a HistoryProcessor (JavaCV) otherwise
+     */
+    static IHistoryProcessor newInstance(Configuration conf) {
+        return conf.isPureJava() || conf.getPipeline() != null ?
+                new JavaHistoryProcessor(conf) : new HistoryProcessor(conf);
+    }
+
     Configuration getConf();
 
     INDArray[] getHistory();
 
+    /**
+     * The history as Transition.concat(getHistory()) would stack it, scaled by 1/256,
+     * without copy nor allocation: a view updated in place by add, read only
+     * @return the stacked history, shape [historyLength, croppingHeight, croppingWidth]
+     */
+    INDArray getStackedHistory();
+
     void record(INDArray image);
 
     void add(INDArray image);
@@ -34,6 +51,22 @@ public interface IHistoryProcessor {
         int offsetX;
         int offsetY;
         int skipFrame;
+        boolean pureJava;
+        int monitorQueueSize = 64;
+        DropPolicy monitorDropPolicy = DropPolicy.DROP_NEWEST;
+        ObservationPipeline pipeline = null;
+
+        /**
+         * What to do with a monitored frame when the video encoder falls behind
+         */
+        public enum DropPolicy {
+            /** wait for the encoder */
+            BLOCK,
+            /** drop the new frame */
+            DROP_NEWEST,
+            /** drop the oldest frame waiting to be encoded */
+            DROP_OLDEST
+        }
 
         /**
          * Default constructor.
@@ -47,6 +80,7 @@ public interface IHistoryProcessor {
             offsetX = 0;
             offsetY = 0;
             skipFrame = 4;
+            pureJava = false;
         }
 
         public Configuration(int historyLength, int rescaledWidth, int rescaledHeight, int croppingWidth,
@@ -59,6 +93,14 @@ public interface IHistoryProcessor {
             this.offsetX = offsetX;
             this.offsetY = offsetY;
             this.skipFrame = skipFrame;
+            this.pureJava = false;
+        }
+
+        public Configuration(int historyLength, int rescaledWidth, int rescaledHeight, int croppingWidth,
+                             int croppingHeight, int offsetX, int offsetY, int skipFrame, boolean pureJava) {
+            this(historyLength, rescaledWidth, rescaledHeight, croppingWidth, croppingHeight, offsetX, offsetY,
+                    skipFrame);
+            this.pureJava = pureJava;
         }
 
         /**
@@ -123,5 +165,54 @@ public interface IHistoryProcessor {
         public int getSkipFrame(){
             return this.skipFrame;
         }
+
+        /**
+         * @return  true to preprocess the frames in Java rather than with JavaCV.
+         */
+        public boolean isPureJava() {
+            return this.pureJava;
+        }
+
+        /**
+         * @return  Max number of monitored frames waiting to be encoded.
+         */
+        public int getMonitorQueueSize() {
+            return this.monitorQueueSize;
+        }
+
+        public Configuration setMonitorQueueSize(int monitorQueueSize) {
+            if (monitorQueueSize <= 0)
+                throw new IllegalArgumentException("monitorQueueSize must be positive");
+            this.monitorQueueSize = monitorQueueSize;
+            return this;
+        }
+
+        /**
+         * @return  What to do with a monitored frame when monitorQueueSize frames wait to be encoded.
+         */
+        public DropPolicy getMonitorDropPolicy() {
+            return this.monitorDropPolicy;
+        }
+
+        public Configuration setMonitorDropPolicy(DropPolicy monitorDropPolicy) {
+            this.monitorDropPolicy = monitorDropPolicy;
+            return this;
+        }
+
+        /**
+         * @return  Transforms of the frames before they are stacked, null for the
+         *          ones of HistoryProcessor (see ObservationPipeline.of).
+         */
+        public ObservationPipeline getPipeline() {
+            return this.pipeline;
+        }
+
+        /**
+         * Its output must be single channel frames of croppingHeight x croppingWidth
+         */
+        public Configuration setPipeline(ObservationPipeline pipeline) {
+            this.pipeline = pipeline;
+            return this;
+        }
     }
 }
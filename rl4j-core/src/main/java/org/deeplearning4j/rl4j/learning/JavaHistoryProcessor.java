@@ -0,0 +1,117 @@
+package org.deeplearning4j.rl4j.learning;
+
+import org.apache.commons.collections4.queue.CircularFifoQueue;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplayBatch;
+import org.deeplearning4j.rl4j.learning.transform.Frame;
+import org.deeplearning4j.rl4j.learning.transform.ObservationPipeline;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.BasicNDArrayCompressor;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.FloatBuffer;
+
+/**
+ * An IHistoryProcessor implementation in pure Java, without JavaCV,
+ * selected by IHistoryProcessor.Configuration.isPureJava() or by setting
+ * an ObservationPipeline in the configuration.
+ *
+ * The frames go through the fused stages of the pipeline, by default
+ * the same as HistoryProcessor (uint8 RGB to gray, bilinear resize, crop),
+ * then are written, scaled, straight into the stacked history. The frame
+ * is also copied unscaled into a reused array to be compressed: the only
+ * allocation per frame is the compressed copy kept for getHistory().
+ *
+ * Frames can not be recorded: monitoring is not supported.
+ */
+public class JavaHistoryProcessor implements IHistoryProcessor {
+
+    final private Logger log = LoggerFactory.getLogger("JavaHistoryProcessor");
+    final private static BasicNDArrayCompressor compressor = BasicNDArrayCompressor.getInstance().setDefaultCompression("UINT8");
+
+    final private Configuration conf;
+    final private CircularFifoQueue<INDArray> history;
+    final private INDArray stacked;
+    final private ObservationPipeline.Runner pipeline;
+    final private int[] frameShape;
+    //the last frame, unscaled, to compress
+    final private INDArray uncompressed;
+    final private float[] scaled;
+    private int next = 0;
+
+    public JavaHistoryProcessor(Configuration conf) {
+        this.conf = conf;
+        history = new CircularFifoQueue<>(conf.getHistoryLength());
+        stacked = Nd4j.create(2 * conf.getHistoryLength(), conf.getCroppingHeight(), conf.getCroppingWidth());
+        pipeline = (conf.getPipeline() != null ? conf.getPipeline() : ObservationPipeline.of(conf)).newRunner();
+        frameShape = new int[]{1, conf.getCroppingHeight(), conf.getCroppingWidth()};
+        uncompressed = Nd4j.create(frameShape);
+        scaled = new float[conf.getCroppingHeight() * conf.getCroppingWidth()];
+    }
+
+    public void add(INDArray obs) {
+        float[] frame = pipeline.process(obs);
+        Frame output = pipeline.getOutput();
+        if (output.getChannels() != 1 || output.getHeight() != frameShape[1] || output.getWidth() != frameShape[2])
+            throw new IllegalStateException("The pipeline must output single channel frames of croppingHeight x croppingWidth");
+
+        for (int i = 0; i < scaled.length; i++)
+            scaled[i] = frame[i] / 256f;
+
+        //every frame is written twice, see HistoryProcessor
+        int length = conf.getHistoryLength();
+        write(stacked, next * scaled.length, scaled);
+        write(stacked, (next + length) * scaled.length, scaled);
+        next = (next + 1) % length;
+
+        write(uncompressed, 0, frame);
+        history.add(compressor.compress(uncompressed));
+    }
+
+    //bulk write of a frame at an offset of a contiguous array
+    private static void write(INDArray to, int offset, float[] frame) {
+        DataBuffer data = to.data();
+        if (data.dataType() == DataBuffer.Type.FLOAT) {
+            FloatBuffer buffer = data.asNioFloat();
+            buffer.position(to.offset() + offset);
+            buffer.put(frame, 0, frame.length);
+        } else {
+            for (int i = 0; i < frame.length; i++)
+                data.put(to.offset() + offset + i, frame[i]);
+        }
+    }
+
+    public void startMonitor(String filename) {
+        log.warn("Monitoring is not supported, use HistoryProcessor to record " + filename);
+    }
+
+    public void stopMonitor() {
+    }
+
+    public boolean isMonitoring() {
+        return false;
+    }
+
+    public void record(INDArray raw) {
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    public INDArray[] getHistory() {
+        INDArray[] array = new INDArray[conf.getHistoryLength()];
+        for (int i = 0; i < conf.getHistoryLength(); i++) {
+            array[i] = history.get(i);
+        }
+        return array;
+    }
+
+    public INDArray getStackedHistory() {
+        return ExpReplayBatch.rows(stacked, next, next + conf.getHistoryLength());
+    }
+
+}
@@ -8,6 +8,7 @@ import org.deeplearning4j.gym.StepReply;
 import org.deeplearning4j.rl4j.space.ActionSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
 import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.mdp.Observations;
 import org.deeplearning4j.rl4j.network.NeuralNet;
 
 import org.deeplearning4j.rl4j.util.DataManager;
@@ -44,12 +45,7 @@ public abstract class Learning<O extends Encodable, A, AS extends ActionSpace<A>
     }
 
     public static <O extends Encodable, A, AS extends ActionSpace<A>> INDArray getInput(MDP<O, A, AS> mdp, O obs) {
-        INDArray arr = Nd4j.create(obs.toArray());
-        int[] shape = mdp.getObservationSpace().getShape();
-        if (shape.length == 1)
-            return arr;
-        else
-            return arr.reshape(shape);
+        return Observations.toINDArray(obs, mdp.getObservationSpace().getShape());
     }
 
     public static <O extends Encodable, A, AS extends ActionSpace<A>> InitMdp<O>
@@ -117,7 +113,7 @@ public abstract class Learning<O extends Encodable, A, AS extends ActionSpace<A>
     }
 
     protected void setHistoryProcessor(HistoryProcessor.Configuration conf) {
-        historyProcessor = new HistoryProcessor(conf);
+        historyProcessor = IHistoryProcessor.newInstance(conf);
     }
 
     public Logger getLogger() {
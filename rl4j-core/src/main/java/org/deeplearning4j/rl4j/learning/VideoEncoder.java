@@ -0,0 +1,163 @@
+package org.deeplearning4j.rl4j.learning;
+
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.FrameRecorder;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.bytedeco.javacpp.avcodec.AV_CODEC_ID_H264;
+import static org.bytedeco.javacpp.opencv_core.*;
+
+/**
+ * Encodes the video of a monitored episode on its own thread, so that
+ * the thread playing the episode only converts its frames to uint8.
+ *
+ * The frames go through a bounded queue of uint8 buffers, allocated for
+ * the first frame and then reused. When all of them wait to be encoded,
+ * the DropPolicy decides what happens to a new frame.
+ *
+ * Once finished, the encoder records the frames still queued, then closes the
+ * video; the thread is not a daemon so that a video is never left truncated.
+ */
+public class VideoEncoder extends Thread {
+
+    final private static long POLL_TIMEOUT_MS = 100;
+
+    final private Logger log = LoggerFactory.getLogger("VideoEncoder");
+    final private OpenCVFrameConverter openCVFrameConverter = new OpenCVFrameConverter.ToMat();
+    final private String filename;
+    final private int queueSize;
+    final private IHistoryProcessor.Configuration.DropPolicy dropPolicy;
+    final private BlockingQueue<Mat> frames;
+    final private BlockingQueue<Mat> free;
+    private FFmpegFrameRecorder fmpegFrameRecorder;
+    private volatile boolean finished = false;
+    private int allocated = 0;
+    //counted by the recording thread, logged by the encoding one
+    final private AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param filename file of the video
+     * @param queueSize max number of frames waiting to be encoded
+     * @param dropPolicy what to do with a frame when queueSize frames are waiting
+     */
+    public VideoEncoder(String filename, int queueSize, IHistoryProcessor.Configuration.DropPolicy dropPolicy) {
+        super("VideoEncoder");
+        if (queueSize <= 0)
+            throw new IllegalArgumentException("queueSize must be positive");
+        this.filename = filename;
+        this.queueSize = queueSize;
+        this.dropPolicy = dropPolicy;
+        frames = new ArrayBlockingQueue<>(queueSize);
+        free = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    @Override
+    public synchronized void start() {
+        fmpegFrameRecorder = new FFmpegFrameRecorder(filename, 800, 600, 0);
+        fmpegFrameRecorder.setVideoCodec(AV_CODEC_ID_H264);
+        fmpegFrameRecorder.setFrameRate(35.0);
+        fmpegFrameRecorder.setVideoBitrate(1000000);
+        try {
+            log.info("Started monitoring: " + filename);
+            fmpegFrameRecorder.start();
+        } catch (FrameRecorder.Exception e) {
+            e.printStackTrace();
+        }
+        super.start();
+    }
+
+    /**
+     * Queue a frame, to be called by a single thread
+     * @param raw [height, width, 3] frame of floats in [0, 255]
+     */
+    public void record(INDArray raw) {
+        if (finished)
+            return;
+        Mat buffer = nextBuffer(raw.shape());
+        if (buffer == null) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int[] shape = raw.shape();
+        Mat ocvmat = new Mat(shape[0], shape[1], CV_32FC(3), raw.data().pointer());
+        ocvmat.convertTo(buffer, CV_8UC(3));
+        frames.add(buffer);
+    }
+
+    //a buffer to write the frame in, null if the frame is dropped
+    private Mat nextBuffer(int[] shape) {
+        Mat buffer = free.poll();
+        if (buffer != null)
+            return buffer;
+        if (allocated < queueSize) {
+            allocated++;
+            return new Mat(shape[0], shape[1], CV_8UC(3));
+        }
+
+        switch (dropPolicy) {
+            case DROP_OLDEST:
+                while (buffer == null) {
+                    buffer = frames.poll();
+                    if (buffer != null)
+                        dropped.incrementAndGet();
+                    else //the encoder took the last one meanwhile, and gives back its buffer
+                        buffer = free.poll();
+                }
+                return buffer;
+            case BLOCK:
+                try {
+                    while (buffer == null && isAlive())
+                        buffer = free.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return buffer;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Stop accepting frames, the video is closed once the queued ones are encoded
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!finished || !frames.isEmpty()) {
+                Mat frame = frames.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (frame == null)
+                    continue;
+                try {
+                    fmpegFrameRecorder.record(openCVFrameConverter.convert(frame));
+                } catch (FrameRecorder.Exception e) {
+                    e.printStackTrace();
+                }
+                free.add(frame);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                fmpegFrameRecorder.stop();
+                fmpegFrameRecorder.release();
+                long nbDropped = dropped.get();
+                log.info("Stopped monitoring: " + filename + (nbDropped > 0 ? ", " + nbDropped + " frames dropped" : ""));
+            } catch (FrameRecorder.Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+}
@@ -16,6 +16,17 @@ public interface AsyncConfiguration extends ILearning.LConfiguration {
     int getNumThread();
     int getNstep();
     int getTargetDqnUpdateFreq();
+    double getTargetUpdateTau();
+    boolean isMergeGradients();
+    boolean isHogwild();
+    boolean isSharedUpdater();
+    int getInferenceBatchSize();
+    long getInferenceMaxWaitMicros();
+    int getMaxStaleness();
+    boolean isDownWeightStale();
+    int getMaxQueueSize();
+    int getEvaluationEpisodes();
+    long getEvaluationIntervalMillis();
     int getUpdateStart();
     double getRewardFactor();
     double getGamma();
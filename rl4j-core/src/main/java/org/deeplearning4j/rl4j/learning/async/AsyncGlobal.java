@@ -1,13 +1,21 @@
 package org.deeplearning4j.rl4j.learning.async;
 
-import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.rl4j.network.NeuralNet;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) on 8/5/16.
@@ -22,40 +30,85 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  * This Central thread for Asynchronous Method of reinforcement learning
  * enqueue the gradients coming from the different threads and update its
- * model and target. Those neurals nets are then synced by the other threads.
+ * model and target. Those neurals nets are then synced by the other threads:
+ * they are published as versioned snapshots once per batch of drained gradients,
+ * that the threads copy into their own long-lived nets only when the version changed.
  *
  * The benefits of this thread is that the updater is "shared" between all thread
  * we have a single updater which is the single updater of the model contained here
  *
  * This is similar to RMSProp with shared g and momentum
  *
- * When Hogwild! is implemented, this could be replaced by a simple data
- * structure
+ * With an inference server (AsyncConfiguration.getInferenceBatchSize > 0), the
+ * threads have no model: they get their outputs from the server and enqueue their
+ * rollouts, on which this thread computes a single gradient per batch of pending ones.
  *
+ * A gradient is tagged with the version of the parameters it was computed on:
+ * beyond maxStaleness versions published since then, it is dropped or down-weighted.
+ * The steps of the dropped gradients are not counted in T but apart.
+ * The threads block while maxQueueSize gradients are pending.
+ *
+ * In Hogwild! mode (AsyncConfiguration.isHogwild), this thread is not started
+ * and is only a shared data structure: the threads apply their gradients
+ * to the model themselves and read it back without lock, with their own updater
+ * or the shared one (isSharedUpdater), used under lock. The target is still updated under lock.
  *
  */
 public class AsyncGlobal<NN extends NeuralNet> extends Thread {
 
+    final private static long POLL_TIMEOUT_MS = 100;
+
     final private Logger log = LoggerFactory.getLogger("Global");
     final private NN current;
-    final private ConcurrentLinkedQueue<Pair<Gradient[], Integer>> queue;
+    final private BlockingQueue<PendingGradient> queue;
     final private AsyncConfiguration a3cc;
     private AtomicInteger T = new AtomicInteger(0);
-    private NN target;
-    private boolean running = true;
+    final private AtomicInteger droppedGradients = new AtomicInteger(0);
+    final private AtomicInteger droppedSteps = new AtomicInteger(0);
+    final private NN target;
+    final private ParamSnapshot<NN> currentSnapshot;
+    final private ParamSnapshot<NN> targetSnapshot;
+    private volatile boolean running = true;
+    //Hogwild! mode only
+    final private AtomicLong hogwildVersion = new AtomicLong();
+    final private InferenceServer<NN> inferenceServer;
+    private volatile double latestScore = Double.NaN;
 
 
     public AsyncGlobal(NN initial, AsyncConfiguration a3cc) {
         this.current = initial;
         target = (NN) initial.clone();
+        currentSnapshot = a3cc.isHogwild() ? null : new ParamSnapshot<>(initial);
+        targetSnapshot = new ParamSnapshot<>(initial);
         this.a3cc = a3cc;
-        queue = new ConcurrentLinkedQueue<>();
+        queue = a3cc.getMaxQueueSize() > 0 ? new LinkedBlockingQueue<>(a3cc.getMaxQueueSize()) :
+                new LinkedBlockingQueue<>();
+        if (a3cc.getInferenceBatchSize() > 0) {
+            if (a3cc.isHogwild())
+                throw new IllegalArgumentException("The inference server needs the global thread, not Hogwild!");
+            inferenceServer = new InferenceServer<>(this, a3cc.getInferenceBatchSize(), a3cc.getInferenceMaxWaitMicros());
+        } else
+            inferenceServer = null;
     }
 
     public AtomicInteger getT() {
         return T;
     }
 
+    /**
+     * @return number of gradients dropped for their staleness
+     */
+    public int getDroppedGradients() {
+        return droppedGradients.get();
+    }
+
+    /**
+     * @return number of steps of the gradients dropped, not counted in T
+     */
+    public int getDroppedSteps() {
+        return droppedSteps.get();
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -64,6 +117,20 @@ public class AsyncGlobal<NN extends NeuralNet> extends Thread {
         this.running = running;
     }
 
+    /**
+     * @return the inference server, null if the threads run their own copy of the model
+     */
+    public InferenceServer<NN> getInferenceServer() {
+        return inferenceServer;
+    }
+
+    /**
+     * @return score of the latest gradient computed by this thread, with an inference server
+     */
+    public double getLatestScore() {
+        return latestScore;
+    }
+
     public boolean isTrainingComplete() {
         return T.get() >= a3cc.getMaxStep();
     }
@@ -76,30 +143,272 @@ public class AsyncGlobal<NN extends NeuralNet> extends Thread {
         return (NN) target.clone();
     }
 
+    /**
+     * Copy the latest published parameters of the current model into a thread-local one,
+     * only if they changed since the last call
+     * @param local thread-local neural net
+     * @param localVersion version returned by the last call, -1 the first time
+     * @return the version of the parameters now in local
+     */
+    public long syncCurrent(NN local, long localVersion) {
+        if (a3cc.isHogwild()) {
+            //racy read of the params being updated, as in Hogwild!
+            long latest = hogwildVersion.get();
+            if (latest != localVersion)
+                local.copy(current);
+            return latest;
+        }
+        return currentSnapshot.sync(local, localVersion);
+    }
+
+    /**
+     * Same as syncCurrent for the target model
+     */
+    public long syncTarget(NN local, long localVersion) {
+        return targetSnapshot.sync(local, localVersion);
+    }
+
     public void enqueue(Gradient[] gradient, Integer nstep) {
-            queue.add(new Pair<>(gradient, nstep));
+        put(new PendingGradient(gradient, nstep, -1, null));
     }
 
+    /**
+     * Enqueue gradients that are views of buffers reused by the calling thread
+     * @param version version of the parameters the gradients were computed on, returned by syncCurrent
+     * @param applied released once the gradients are applied (or dropped) and the buffers can be reused
+     */
+    public void enqueue(Gradient[] gradient, Integer nstep, long version, Semaphore applied) {
+        put(new PendingGradient(gradient, nstep, version, applied));
+    }
+
+    /**
+     * Enqueue a rollout for this thread to compute the gradient on, with an inference server
+     * @param input inputs of the steps
+     * @param labels labels of all the outputs of the model
+     * @param nstep number of steps
+     */
+    public void enqueue(INDArray input, INDArray[] labels, Integer nstep) {
+        put(new PendingGradient(input, labels, nstep));
+    }
+
+    //block while the queue is full, unless the training stops
+    private void put(PendingGradient pending) {
+        try {
+            while (!queue.offer(pending, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (isTrainingComplete() || !running) {
+                    pending.release();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.release();
+        }
+    }
+
+    /**
+     * Hogwild! mode: apply gradients to the model from the calling thread, without lock.
+     * A shared updater is still used under lock: every update writes its state (momentum, RMSProp g...).
+     * @param gradient gradients computed by local
+     * @param nstep number of steps the gradients were computed on
+     * @param local model of the calling thread, whose updater is used unless it is shared
+     */
+    public void applyHogwild(Gradient[] gradient, int nstep, NN local) {
+        if (!a3cc.isSharedUpdater())
+            local.applyUpdater(gradient, nstep);
+        else {
+            synchronized (this) {
+                current.applyUpdater(gradient, nstep);
+            }
+        }
+        current.subUpdates(gradient);
+        hogwildVersion.incrementAndGet();
+        updateTarget(T.addAndGet(nstep), nstep);
+    }
+
+    /**
+     * Wait for gradients, drain all the pending ones and apply them one by one,
+     * or summed in a single update if mergeGradients (the batch size being the sum of their nstep).
+     * Pending rollouts are always trained on in a single batch.
+     * The parameters are published once all the drained gradients are applied.
+     */
     @Override
     public void run() {
 
-                while (!isTrainingComplete() && running) {
-                    if (!queue.isEmpty()) {
-                        Pair<Gradient[], Integer> pair = queue.poll();
-                        T.addAndGet(pair.getSecond());
-                        Gradient[] gradient = pair.getFirst();
-                        synchronized (this) {
-                            current.applyGradient(gradient, pair.getSecond());
-                        }
-                        if (a3cc.getTargetDqnUpdateFreq() != -1 && T.get() / a3cc.getTargetDqnUpdateFreq() > (T.get() - pair.getSecond()) / a3cc.getTargetDqnUpdateFreq()) {
-                            log.info("TARGET UPDATE at T = " + T.get());
-                            synchronized (this) {
-                                target = (NN) current.clone();
-                            }
+        List<PendingGradient> pending = new ArrayList<>();
+        List<PendingGradient> fresh = new ArrayList<>();
+
+        try {
+            while (!isTrainingComplete() && running) {
+                PendingGradient first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+
+                pending.clear();
+                pending.add(first);
+                queue.drainTo(pending);
+
+                try {
+                    if (inferenceServer != null)
+                        apply(train(pending));
+                    else {
+                        fresh.clear();
+                        for (PendingGradient gradient : pending) {
+                            if (admit(gradient))
+                                fresh.add(gradient);
                         }
+                        if (a3cc.isMergeGradients() && fresh.size() > 1)
+                            apply(merge(fresh));
+                        else
+                            for (PendingGradient gradient : fresh)
+                                apply(gradient);
+                        if (fresh.isEmpty())
+                            continue;
                     }
+                    currentSnapshot.publish(current);
+                } finally {
+                    for (PendingGradient gradient : pending)
+                        gradient.release();
                 }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (droppedGradients.get() > 0)
+            log.info("Dropped " + droppedGradients.get() + " stale gradients of " + droppedSteps.get() + " steps");
+    }
+
+    /**
+     * Check the staleness of gradients when they are drained: the number of versions
+     * published since the parameters they were computed on
+     * @return false if they are dropped
+     */
+    private boolean admit(PendingGradient pending) {
+        int maxStaleness = a3cc.getMaxStaleness();
+        if (maxStaleness < 0 || pending.version < 0)
+            return true;
+
+        long staleness = currentSnapshot.getVersion() - pending.version;
+        if (staleness <= maxStaleness)
+            return true;
 
+        if (a3cc.isDownWeightStale()) {
+            double weight = (maxStaleness + 1.0) / (staleness + 1.0);
+            for (Gradient gradient : pending.gradient)
+                for (INDArray variable : gradient.gradientForVariable().values())
+                    variable.muli(weight);
+            return true;
+        }
+
+        log.debug("Dropped gradient of staleness " + staleness);
+        droppedGradients.incrementAndGet();
+        droppedSteps.addAndGet(pending.nstep);
+        return false;
+    }
+
+    private void apply(PendingGradient pending) {
+        int nstep = pending.nstep;
+        int t = T.addAndGet(nstep);
+        synchronized (this) {
+            current.applyGradient(pending.gradient, nstep);
+        }
+        updateTarget(t, nstep);
+    }
+
+    private void updateTarget(int t, int nstep) {
+        if (a3cc.getTargetDqnUpdateFreq() != -1 && t / a3cc.getTargetDqnUpdateFreq() > (t - nstep) / a3cc.getTargetDqnUpdateFreq()) {
+            //synchronized for the Hogwild! threads: publish is single writer
+            synchronized (this) {
+                if (a3cc.getTargetUpdateTau() < 1) {
+                    log.debug("TARGET SOFT UPDATE at T = " + t);
+                    target.softUpdate(current, a3cc.getTargetUpdateTau());
+                } else {
+                    log.info("TARGET UPDATE at T = " + t);
+                    target.copy(current);
+                }
+                targetSnapshot.publish(target);
             }
+        }
+    }
 
+    //gradient of the current model on all the rollouts
+    private PendingGradient train(List<PendingGradient> rollouts) {
+        int size = rollouts.size();
+        INDArray[] inputs = new INDArray[size];
+        INDArray[][] labels = new INDArray[rollouts.get(0).labels.length][size];
+        int nstep = 0;
+        for (int i = 0; i < size; i++) {
+            PendingGradient rollout = rollouts.get(i);
+            inputs[i] = rollout.input;
+            for (int j = 0; j < labels.length; j++)
+                labels[j][i] = rollout.labels[j];
+            nstep += rollout.nstep;
+        }
+
+        INDArray[] batchLabels = new INDArray[labels.length];
+        for (int j = 0; j < labels.length; j++)
+            batchLabels[j] = concat(labels[j]);
+
+        Gradient[] gradient;
+        synchronized (this) {
+            gradient = current.gradient(concat(inputs), batchLabels);
+        }
+        latestScore = current.getLatestScore();
+        return new PendingGradient(gradient, nstep, -1, null);
+    }
+
+    private static INDArray concat(INDArray[] arrays) {
+        return arrays.length == 1 ? arrays[0] : Nd4j.concat(0, arrays);
+    }
+
+    //sum the gradients in place into the first ones
+    private static PendingGradient merge(List<PendingGradient> pending) {
+        Gradient[] sum = pending.get(0).gradient;
+        int nstep = pending.get(0).nstep;
+        for (int i = 1; i < pending.size(); i++) {
+            Gradient[] gradient = pending.get(i).gradient;
+            for (int j = 0; j < sum.length; j++) {
+                for (Map.Entry<String, INDArray> variable : sum[j].gradientForVariable().entrySet())
+                    variable.getValue().addi(gradient[j].getGradientFor(variable.getKey()));
+            }
+            nstep += pending.get(i).nstep;
+        }
+        return new PendingGradient(sum, nstep, -1, null);
     }
+
+    //gradients computed by a thread, or a rollout to compute them on
+    private static class PendingGradient {
+        final private Gradient[] gradient;
+        final private INDArray input;
+        final private INDArray[] labels;
+        final private int nstep;
+        //-1 if unknown
+        final private long version;
+        final private Semaphore applied;
+
+        PendingGradient(Gradient[] gradient, int nstep, long version, Semaphore applied) {
+            this.gradient = gradient;
+            this.input = null;
+            this.labels = null;
+            this.nstep = nstep;
+            this.version = version;
+            this.applied = applied;
+        }
+
+        PendingGradient(INDArray input, INDArray[] labels, int nstep) {
+            this.gradient = null;
+            this.input = input;
+            this.labels = labels;
+            this.nstep = nstep;
+            this.version = -1;
+            this.applied = null;
+        }
+
+        void release() {
+            if (applied != null)
+                applied.release();
+        }
+    }
+
+}
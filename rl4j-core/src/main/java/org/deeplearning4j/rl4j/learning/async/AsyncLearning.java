@@ -4,8 +4,7 @@ import org.deeplearning4j.rl4j.space.ActionSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
 import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.network.NeuralNet;
-
-import java.util.concurrent.TimeUnit;
+import org.deeplearning4j.rl4j.policy.Policy;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) 7/25/16.
@@ -13,15 +12,14 @@ import java.util.concurrent.TimeUnit;
  * Async learning always follow the same pattern in RL4J
  * -launch the Global thread
  * -launch the "save threads"
- * -periodically evaluate the model of the global thread for monitoring purposes
+ * -periodically evaluate the model of the global thread for monitoring purposes,
+ *  in parallel with an EvaluationService if evaluationEpisodes > 0
  *
  */
 public abstract class AsyncLearning<O extends Encodable, A, AS extends ActionSpace<A>, NN extends NeuralNet>
         extends Learning<O, A, AS, NN> {
 
 
-    private static final Long WAIT_TIMER_MS = TimeUnit.SECONDS.toMillis(20);
-
     public AsyncLearning(AsyncConfiguration conf) {
         super(conf);
     }
@@ -32,6 +30,12 @@ public abstract class AsyncLearning<O extends Encodable, A, AS extends ActionSpa
 
     public abstract AsyncGlobal<NN> getAsyncGlobal();
 
+    /**
+     * @param net copy of the model owned by the evaluation thread
+     * @return the greedy policy of the model
+     */
+    protected abstract Policy<O, A> getEvaluationPolicy(NN net);
+
     private void startGlobalThread() {
         getAsyncGlobal().start();
     }
@@ -41,7 +45,11 @@ public abstract class AsyncLearning<O extends Encodable, A, AS extends ActionSpa
     }
 
     private void launchThreads() {
-        startGlobalThread();
+        //in Hogwild! mode the threads update the model themselves
+        if (!getConfiguration().isHogwild())
+            startGlobalThread();
+        if (getAsyncGlobal().getInferenceServer() != null)
+            getAsyncGlobal().getInferenceServer().start();
         for (int i = 0; i < getConfiguration().getNumThread(); i++) {
             newThread(i).start();
         }
@@ -60,16 +68,27 @@ public abstract class AsyncLearning<O extends Encodable, A, AS extends ActionSpa
 
         //this is simply for stat purposes
         getDataManager().writeInfo(this);
-        synchronized (this) {
-            while (!isTrainingComplete() && getAsyncGlobal().isRunning()) {
-                getPolicy().play(getMdp(), getHistoryProcessor());
-                getDataManager().writeInfo(this);
-                try {
-                    wait(WAIT_TIMER_MS);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        int episodes = getConfiguration().getEvaluationEpisodes();
+        EvaluationService<O, A, AS, NN> evaluation =
+                episodes > 0 ? new EvaluationService<>(this, episodes, getDataManager()) : null;
+        try {
+            synchronized (this) {
+                while (!isTrainingComplete() && getAsyncGlobal().isRunning()) {
+                    if (evaluation != null)
+                        evaluation.evaluate();
+                    else
+                        getPolicy().play(getMdp(), getHistoryProcessor());
+                    getDataManager().writeInfo(this);
+                    try {
+                        wait(getConfiguration().getEvaluationIntervalMillis());
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
                 }
             }
+        } finally {
+            if (evaluation != null)
+                evaluation.shutdown();
         }
 
     }
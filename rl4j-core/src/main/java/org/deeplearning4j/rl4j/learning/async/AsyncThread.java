@@ -3,7 +3,6 @@ package org.deeplearning4j.rl4j.learning.async;
 import org.deeplearning4j.rl4j.space.ActionSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
 
-import org.deeplearning4j.rl4j.learning.HistoryProcessor;
 import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
 import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.learning.StepCountable;
@@ -37,7 +36,7 @@ public abstract class AsyncThread<O extends Encodable, A, AS extends ActionSpace
     }
 
     public void setHistoryProcessor(IHistoryProcessor.Configuration conf) {
-        historyProcessor = new HistoryProcessor(conf);
+        historyProcessor = IHistoryProcessor.newInstance(conf);
     }
 
     @Override
@@ -100,6 +99,9 @@ public abstract class AsyncThread<O extends Encodable, A, AS extends ActionSpace
 
     protected abstract DataManager getDataManager();
 
+    /**
+     * @param net model of the thread, null with an inference server: the policy then only selects from outputs
+     */
     protected abstract Policy<O, A> getPolicy(NN net);
 
     protected abstract SubEpochReturn<O> trainSubEpoch(O obs, int nstep);
@@ -1,36 +1,52 @@
 package org.deeplearning4j.rl4j.learning.async;
 
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.gym.StepReply;
 
+import org.deeplearning4j.rl4j.policy.Decision;
 import org.deeplearning4j.rl4j.policy.Policy;
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
 
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
 import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.learning.sync.Transition;
 import org.deeplearning4j.rl4j.network.NeuralNet;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
-import java.util.Stack;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) on 8/5/16.
  *
  * Async Learning specialized for the Discrete Domain
  *
+ * With an inference server, the thread has no copy of the model: the outputs
+ * come from the server and the targets of the rollout are sent to the global thread.
+ *
  */
 public abstract class AsyncThreadDiscrete<O extends Encodable, NN extends NeuralNet>
         extends AsyncThread<O, Integer, DiscreteSpace, NN> {
 
+    //thread-local copies of the global nets, synced when a new version is published
+    private NN current = null;
+    private long currentVersion = -1;
+    private NN target = null;
+    private long targetVersion = -1;
+    private Rollout rollout = null;
+    //the gradients of current are views of its buffers: they are not computed again before being applied
+    final private Semaphore gradientApplied = new Semaphore(1);
+
     public AsyncThreadDiscrete(AsyncGlobal<NN> asyncGlobal, int threadNumber){
         super(asyncGlobal, threadNumber);
     }
 
     /**
      * "Subepoch"  correspond to the t_max-step iterations
-     * that stack rewards with t_max MiniTrans
+     * that fill the rollout with up to t_max steps
      *
      * @param sObs the obs to start from
      * @param nstep the number of max nstep (step until t_max or state is terminal)
@@ -38,9 +54,12 @@ public abstract class AsyncThreadDiscrete<O extends Encodable, NN extends Neural
      */
     public SubEpochReturn<O> trainSubEpoch(O sObs, int nstep) {
 
-        NN current = getAsyncGlobal().cloneCurrent();
-        Stack<MiniTrans<Integer>> rewards = new Stack<>();
-
+        InferenceServer<NN> server = getAsyncGlobal().getInferenceServer();
+        if (server == null) {
+            if (current == null)
+                current = getAsyncGlobal().cloneCurrent();
+            currentVersion = getAsyncGlobal().syncCurrent(current, currentVersion);
+        }
         O obs = sObs;
         Policy<O, Integer> policy = getPolicy(current);
 
@@ -50,6 +69,12 @@ public abstract class AsyncThreadDiscrete<O extends Encodable, NN extends Neural
         boolean isHistoryProcessor = getHistoryProcessor() != null;
 
         int skipFrame = isHistoryProcessor ? getHistoryProcessor().getConf().getSkipFrame() : 1;
+        if (rollout == null) {
+            int[] shape = isHistoryProcessor ? getHistoryProcessor().getConf().getShape() :
+                    getMdp().getObservationSpace().getShape();
+            rollout = new Rollout(nstep * skipFrame, shape);
+        }
+        rollout.clear();
 
         double reward = 0;
         double accuReward = 0;
@@ -57,6 +82,8 @@ public abstract class AsyncThreadDiscrete<O extends Encodable, NN extends Neural
         while (!getMdp().isDone() && i < nstep*skipFrame) {
 
             INDArray input = Learning.getInput(getMdp(), obs);
+            //outputs of the model on the history, computed once per step
+            INDArray[] output = null;
 
             //if step of training, just repeat lastAction
             if (getStepCounter() % skipFrame != 0) {
@@ -69,14 +96,14 @@ public abstract class AsyncThreadDiscrete<O extends Encodable, NN extends Neural
                     } else
                         history = new INDArray[]{input};
                 }
-                //concat the history into a single INDArray input
-                INDArray hstack = Transition.concat(history);
-
-                //if input is not 2d, you have to append that the batch is 1 length high
-                if (hstack.shape().length > 2)
-                    hstack = hstack.reshape(Learning.makeShape(1, hstack.shape()));
-
-                action = policy.nextAction(hstack);
+                if (server == null) {
+                    Decision<Integer> decision = policy.decide(stack(history, getHistoryProcessor()));
+                    action = decision.getAction();
+                    output = decision.getOutput();
+                } else {
+                    output = server.outputAll(stack(history, getHistoryProcessor()), false);
+                    action = policy.selectAction(output);
+                }
             }
 
             lastAction = action;
@@ -88,11 +115,11 @@ public abstract class AsyncThreadDiscrete<O extends Encodable, NN extends Neural
             if (getStepCounter() % skipFrame == 0 || stepReply.isDone()) {
                 obs = stepReply.getObservation();
 
-                if (input.shape().length > 2)
-                    input = input.reshape(Learning.makeShape(1, input.shape()));
-
-                INDArray[] output = current.outputAll(input);
-                rewards.add(new MiniTrans<>(Transition.concat(history), action, output, accuReward));
+                //last step of the episode on a skipped frame
+                if (output == null)
+                    output = server == null ? current.outputAll(stack(history, getHistoryProcessor())) : server.outputAll(stack(history, getHistoryProcessor()), false);
+                rollout.add(isHistoryProcessor ? getHistoryProcessor().getStackedHistory() : Transition.concat(history),
+                        action, output, accuReward);
 
                 reward += stepReply.getReward();
 
@@ -107,24 +134,80 @@ public abstract class AsyncThreadDiscrete<O extends Encodable, NN extends Neural
             i++;
         }
 
-        //a bit of a trick usable because of how the stack is treated to init R
-        INDArray input = Learning.getInput(getMdp(), obs);
-        if (getMdp().isDone())
-            rewards.add(new MiniTrans<>(input, null, null, 0));
-        else {
+        //bootstrap the returns on the value of the last observation, stacked as the inputs of the rollout
+        if (!getMdp().isDone()) {
+            if (history == null)
+                history = new INDArray[]{Learning.getInput(getMdp(), obs)};
+            INDArray input = stack(history, getHistoryProcessor());
             INDArray[] output;
-            if (getConf().getTargetDqnUpdateFreq() == -1)
+            boolean onTarget = getConf().getTargetDqnUpdateFreq() != -1;
+            if (server != null)
+                output = server.outputAll(input, onTarget);
+            else if (!onTarget)
                 output = current.outputAll(input);
             else
-                output = getAsyncGlobal().cloneTarget().outputAll(input);
-            double maxQ = Nd4j.max(output[0]).getDouble(0);
-            rewards.add(new MiniTrans<>(input, null, output, maxQ));
+                output = syncTarget().outputAll(input);
+            rollout.setBootstrap(Nd4j.max(output[0]).getDouble(0));
         }
 
-        getAsyncGlobal().enqueue(calcGradient(current, rewards), i);
+        if (server != null) {
+            //the buffers are reused: the global thread gets copies
+            Pair<INDArray, INDArray[]> targets = calcTargets(rollout);
+            INDArray[] labels = new INDArray[targets.getSecond().length];
+            for (int j = 0; j < labels.length; j++)
+                labels[j] = targets.getSecond()[j].dup();
+            getAsyncGlobal().enqueue(targets.getFirst().dup(), labels, i);
+            return new SubEpochReturn<>(i, obs, reward, getAsyncGlobal().getLatestScore());
+        }
+
+        if (getConf().isHogwild())
+            getAsyncGlobal().applyHogwild(calcGradient(current, rollout), i, current);
+        else if (awaitGradientApplied())
+            getAsyncGlobal().enqueue(calcGradient(current, rollout), i, currentVersion, gradientApplied);
 
         return new SubEpochReturn<>(i, obs, reward, current.getLatestScore());
     }
 
-    public abstract Gradient[] calcGradient(NN nn, Stack<MiniTrans<Integer>> rewards);
+    //concat the history into a single INDArray input, a batch of 1, already stacked by the history processor if any
+    private static INDArray stack(INDArray[] history, IHistoryProcessor hp) {
+        INDArray hstack = hp != null ? hp.getStackedHistory() : Transition.concat(history);
+
+        //if input is not 2d, you have to append that the batch is 1 length high
+        if (hstack.shape().length > 2)
+            hstack = hstack.reshape(Learning.makeShape(1, hstack.shape()));
+        return hstack;
+    }
+
+    //false if the training stopped meanwhile
+    private boolean awaitGradientApplied() {
+        try {
+            while (!gradientApplied.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                if (getAsyncGlobal().isTrainingComplete() || !getAsyncGlobal().isRunning())
+                    return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private NN syncTarget() {
+        if (target == null)
+            target = getAsyncGlobal().cloneTarget();
+        targetVersion = getAsyncGlobal().syncTarget(target, targetVersion);
+        return target;
+    }
+
+    public Gradient[] calcGradient(NN nn, Rollout rollout) {
+        Pair<INDArray, INDArray[]> targets = calcTargets(rollout);
+        return nn.gradient(targets.getFirst(), targets.getSecond());
+    }
+
+    /**
+     * @param rollout the n steps of the sub epoch
+     * @return the inputs and the labels of all the outputs of the model to compute the gradient on,
+     * views of the buffers of the rollout
+     */
+    public abstract Pair<INDArray, INDArray[]> calcTargets(Rollout rollout);
 }
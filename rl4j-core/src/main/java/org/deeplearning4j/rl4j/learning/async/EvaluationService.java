@@ -0,0 +1,177 @@
+package org.deeplearning4j.rl4j.learning.async;
+
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
+import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.network.NeuralNet;
+import org.deeplearning4j.rl4j.space.ActionSpace;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.util.DataManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates the model of an async learning without blocking its training:
+ * every round plays K greedy episodes in parallel on a dedicated executor,
+ * each on its own copy of the mdp with its own copy of the model synced
+ * with the latest parameters of the global thread when the round starts.
+ *
+ * The mean, min and max rewards of a round are reported to the DataManager.
+ * A round is skipped if the previous one is still running.
+ */
+public class EvaluationService<O extends Encodable, A, AS extends ActionSpace<A>, NN extends NeuralNet> {
+
+    final private Logger log = LoggerFactory.getLogger("Evaluation");
+    final private AsyncLearning<O, A, AS, NN> learning;
+    final private DataManager dataManager;
+    final private ExecutorService executor;
+    final private List<Evaluator> evaluators;
+    final private AtomicBoolean running = new AtomicBoolean(false);
+    private int round = 0;
+
+    /**
+     * @param learning async learning to evaluate
+     * @param episodes number of episodes played in parallel per round
+     * @param dataManager DataManager to which the results are reported
+     */
+    public EvaluationService(AsyncLearning<O, A, AS, NN> learning, int episodes, DataManager dataManager) {
+        if (episodes <= 0)
+            throw new IllegalArgumentException("episodes must be positive");
+        this.learning = learning;
+        this.dataManager = dataManager;
+
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        executor = Executors.newFixedThreadPool(episodes, r -> {
+            Thread thread = new Thread(r, "Evaluator-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        IHistoryProcessor hp = learning.getHistoryProcessor();
+        evaluators = new ArrayList<>(episodes);
+        for (int i = 0; i < episodes; i++) {
+            evaluators.add(new Evaluator(learning.getMdp().newInstance(),
+                    hp == null ? null : IHistoryProcessor.newInstance(hp.getConf())));
+        }
+    }
+
+    /**
+     * Start a round of evaluation, does not wait for its results
+     * @return false if the previous round is still running and no round was started
+     */
+    public boolean evaluate() {
+        if (!running.compareAndSet(false, true))
+            return false;
+
+        int stepCounter = learning.getStepCounter();
+        int roundNumber = round++;
+        List<CompletableFuture<Double>> rewards = new ArrayList<>(evaluators.size());
+        for (Evaluator evaluator : evaluators)
+            rewards.add(CompletableFuture.supplyAsync(evaluator::play, executor));
+
+        CompletableFuture.allOf(rewards.toArray(new CompletableFuture[rewards.size()])).whenComplete((v, e) -> {
+            try {
+                if (e != null) {
+                    log.error("Evaluation failed", e);
+                    return;
+                }
+                double sum = 0;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (CompletableFuture<Double> reward : rewards) {
+                    double r = reward.join();
+                    sum += r;
+                    min = Math.min(min, r);
+                    max = Math.max(max, r);
+                }
+                EvaluationStatEntry entry =
+                        new EvaluationStatEntry(stepCounter, roundNumber, sum / rewards.size(), min, max);
+                log.info("Evaluation " + roundNumber + ", step " + stepCounter + ", mean reward: " + entry.getReward());
+                dataManager.appendStat(entry);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Evaluator evaluator : evaluators)
+            evaluator.mdp.close();
+    }
+
+    //an evaluation thread at a time owns an evaluator
+    private class Evaluator {
+        final private MDP<O, A, AS> mdp;
+        final private IHistoryProcessor hp;
+        private NN net = null;
+        private long version = -1;
+
+        Evaluator(MDP<O, A, AS> mdp, IHistoryProcessor hp) {
+            this.mdp = mdp;
+            this.hp = hp;
+        }
+
+        double play() {
+            if (net == null)
+                net = learning.getAsyncGlobal().cloneCurrent();
+            version = learning.getAsyncGlobal().syncCurrent(net, version);
+            return learning.getEvaluationPolicy(net).play(mdp, hp);
+        }
+    }
+
+    public static class EvaluationStatEntry implements DataManager.StatEntry {
+        private final int stepCounter;
+        private final int epochCounter;
+        private final double reward;
+        private final double minReward;
+        private final double maxReward;
+
+        public EvaluationStatEntry(final int stepCounter, final int epochCounter, final double reward,
+                                   final double minReward, final double maxReward) {
+            this.stepCounter = stepCounter;
+            this.epochCounter = epochCounter;
+            this.reward = reward;
+            this.minReward = minReward;
+            this.maxReward = maxReward;
+        }
+
+        @Override
+        public int getStepCounter() {
+            return stepCounter;
+        }
+
+        /**
+         * @return number of the round
+         */
+        @Override
+        public int getEpochCounter() {
+            return epochCounter;
+        }
+
+        /**
+         * @return mean reward of the episodes of the round
+         */
+        @Override
+        public double getReward() {
+            return reward;
+        }
+
+        public double getMinReward() {
+            return minReward;
+        }
+
+        public double getMaxReward() {
+            return maxReward;
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package org.deeplearning4j.rl4j.learning.async;
+
+import org.deeplearning4j.rl4j.network.NeuralNet;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Central predictor of the async threads (as in GA3C https://arxiv.org/abs/1611.06256):
+ * the threads submit their inputs and wait for the outputs, which are computed
+ * in batches by a single copy of the current model (and one of the target).
+ *
+ * A batch is run as soon as it holds maxBatchSize inputs, or maxWait after its first
+ * input was received. Before every batch the copies are synced with the latest
+ * parameters published by the global thread.
+ */
+public class InferenceServer<NN extends NeuralNet> extends Thread {
+
+    final private static long POLL_TIMEOUT_MS = 100;
+
+    final private Logger log = LoggerFactory.getLogger("Inference Server");
+    final private AsyncGlobal<NN> asyncGlobal;
+    final private int maxBatchSize;
+    final private long maxWaitNanos;
+    final private BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    //server thread only
+    private NN current = null;
+    private long currentVersion = -1;
+    private NN target = null;
+    private long targetVersion = -1;
+
+    /**
+     * @param asyncGlobal global thread publishing the parameters
+     * @param maxBatchSize max number of inputs in a batch
+     * @param maxWaitMicros max time an input waits for others before its batch is run
+     */
+    public InferenceServer(AsyncGlobal<NN> asyncGlobal, int maxBatchSize, long maxWaitMicros) {
+        super("InferenceServer");
+        setDaemon(true);
+        this.asyncGlobal = asyncGlobal;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+    }
+
+    /**
+     * @param input batch of 1
+     * @param target true to evaluate the target model instead of the current one
+     * @return the future outputs of all the outputs of the model, batches of 1
+     */
+    public Future<INDArray[]> submit(INDArray input, boolean target) {
+        Request request = new Request(input, target);
+        queue.add(request);
+        return request.output;
+    }
+
+    /**
+     * Submit an input and wait for its outputs
+     */
+    public INDArray[] outputAll(INDArray input, boolean target) {
+        Future<INDArray[]> output = submit(input, target);
+        try {
+            while (true) {
+                try {
+                    return output.get(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (!isAlive())
+                        throw new IllegalStateException("Inference server is not running");
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Inference failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an inference", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!isInterrupted()) {
+                Request first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+
+                batch.clear();
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    Request request = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (request == null)
+                        break;
+                    batch.add(request);
+                }
+
+                try {
+                    run(batch, false);
+                    run(batch, true);
+                } catch (RuntimeException e) {
+                    log.error("Inference failed", e);
+                    for (Request request : batch)
+                        request.output.completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void shutdown() {
+        interrupt();
+    }
+
+    //run the requests of a batch on one of the models
+    private void run(List<Request> batch, boolean onTarget) {
+        List<Request> requests = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            if (request.target == onTarget)
+                requests.add(request);
+        }
+        if (requests.isEmpty())
+            return;
+
+        INDArray[] inputs = new INDArray[requests.size()];
+        for (int i = 0; i < inputs.length; i++)
+            inputs[i] = requests.get(i).input;
+        INDArray input = inputs.length == 1 ? inputs[0] : Nd4j.concat(0, inputs);
+
+        INDArray[] output = sync(onTarget).outputAll(input);
+        for (int i = 0; i < inputs.length; i++) {
+            INDArray[] row = new INDArray[output.length];
+            for (int j = 0; j < output.length; j++)
+                row[j] = output[j].getRow(i);
+            requests.get(i).output.complete(row);
+        }
+    }
+
+    private NN sync(boolean onTarget) {
+        if (onTarget) {
+            if (target == null)
+                target = asyncGlobal.cloneTarget();
+            targetVersion = asyncGlobal.syncTarget(target, targetVersion);
+            return target;
+        }
+        if (current == null)
+            current = asyncGlobal.cloneCurrent();
+        currentVersion = asyncGlobal.syncCurrent(current, currentVersion);
+        return current;
+    }
+
+    private static class Request {
+        final private INDArray input;
+        final private boolean target;
+        final private CompletableFuture<INDArray[]> output = new CompletableFuture<>();
+
+        Request(INDArray input, boolean target) {
+            this.input = input;
+            this.target = target;
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.deeplearning4j.rl4j.learning.async;
+
+import org.deeplearning4j.rl4j.network.NeuralNet;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versioned copy of the parameters of a neural net, published by a single
+ * writer and copied by any number of readers without lock nor allocation.
+ *
+ * It is double buffered: a new version is written in the buffer that does
+ * not hold the latest one, then published. Each buffer is stamped with the
+ * version it holds (-1 while written), a reader retries if the stamp changed
+ * during its copy (the writer lapped it), yielding to the writer first.
+ */
+class ParamSnapshot<NN extends NeuralNet> {
+
+    final private static long WRITING = -1;
+
+    final private NeuralNet[] buffers;
+    final private AtomicLongArray stamps;
+    private volatile long version = 0;
+
+    ParamSnapshot(NN initial) {
+        buffers = new NeuralNet[]{initial.clone(), initial.clone()};
+        stamps = new AtomicLongArray(2);
+        stamps.set(0, 0);
+        stamps.set(1, WRITING);
+    }
+
+    /**
+     * Publish the parameters of a neural net as a new version, single writer only
+     * @param from neural net of the same architecture
+     */
+    void publish(NN from) {
+        long next = version + 1;
+        int slot = (int) (next % 2);
+        stamps.set(slot, WRITING);
+        buffers[slot].copy(from);
+        stamps.set(slot, next);
+        version = next;
+    }
+
+    /**
+     * Copy the latest version into a local neural net if it does not hold it already
+     * @param local neural net of the same architecture
+     * @param localVersion version held by local, -1 if none
+     * @return the version now held by local
+     */
+    long sync(NN local, long localVersion) {
+        while (true) {
+            long latest = version;
+            if (latest == localVersion)
+                return latest;
+            int slot = (int) (latest % 2);
+            if (stamps.get(slot) == latest) {
+                local.copy(buffers[slot]);
+                if (stamps.get(slot) == latest)
+                    return latest;
+            }
+            //the writer is in the buffer: let it finish before retrying
+            Thread.yield();
+        }
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.deeplearning4j.rl4j.learning.async;
+
+import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplayBatch;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * The steps of a sub epoch of an async thread, following the paper
+ * implementation https://arxiv.org/abs/1602.01783 paper.
+ *
+ * The row i of the buffers is the step i. They are allocated on the first step
+ * (once the number and the size of the outputs of the model are known) and
+ * reused by the next sub epochs, as well as the label buffers in which
+ * the threads build their targets.
+ */
+public class Rollout {
+
+    final private int capacity;
+    final private int[] shape;
+    final private int[] actions;
+    final private double[] rewards;
+    final private double[] returnValues;
+    private INDArray obs = null;
+    private INDArray[] outputs;
+    private INDArray[] labels;
+    private INDArray returns;
+    private int size = 0;
+    private double bootstrap = 0;
+
+    /**
+     * @param capacity max number of steps
+     * @param shape shape of an observation
+     */
+    public Rollout(int capacity, int[] shape) {
+        this.capacity = capacity;
+        this.shape = shape;
+        actions = new int[capacity];
+        rewards = new double[capacity];
+        returnValues = new double[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+        bootstrap = 0;
+    }
+
+    /**
+     * @param observation observation of the step
+     * @param action action taken
+     * @param output outputs of the model on the observation, batches of 1
+     * @param reward reward of the step
+     */
+    public void add(INDArray observation, int action, INDArray[] output, double reward) {
+        if (size == capacity)
+            throw new IllegalStateException("Rollout full: " + capacity + " steps");
+        if (obs == null)
+            allocate(output);
+
+        obs.putRow(size, observation);
+        for (int j = 0; j < outputs.length; j++)
+            outputs[j].putRow(size, output[j]);
+        actions[size] = action;
+        rewards[size] = reward;
+        size++;
+    }
+
+    private void allocate(INDArray[] output) {
+        obs = Nd4j.create(Learning.makeShape(capacity, shape));
+        outputs = new INDArray[output.length];
+        labels = new INDArray[output.length];
+        for (int j = 0; j < output.length; j++) {
+            outputs[j] = Nd4j.create(capacity, output[j].columns());
+            labels[j] = Nd4j.create(capacity, output[j].columns());
+        }
+        returns = Nd4j.create(capacity, 1);
+    }
+
+    /**
+     * @param bootstrap estimated return after the last step, 0 if it is terminal
+     */
+    public void setBootstrap(double bootstrap) {
+        this.bootstrap = bootstrap;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getAction(int i) {
+        return actions[i];
+    }
+
+    /**
+     * @return the observations of the steps
+     */
+    public INDArray getObs() {
+        return rows(obs);
+    }
+
+    /**
+     * @return the output j of the model on the steps
+     */
+    public INDArray getOutput(int j) {
+        return rows(outputs[j]);
+    }
+
+    /**
+     * @return a buffer of the shape of the output j for the labels of the steps, overwritten by the next sub epoch
+     */
+    public INDArray getLabels(int j) {
+        return rows(labels[j]);
+    }
+
+    /**
+     * Discounted returns of the steps bootstrapped on the return after the last one, in a single
+     * backward pass over a primitive array then copied at once into the column
+     * @param gamma discount factor
+     * @return column of the returns, overwritten by the next sub epoch
+     */
+    public INDArray computeReturns(double gamma) {
+        double r = bootstrap;
+        for (int i = size - 1; i >= 0; i--) {
+            r = rewards[i] + gamma * r;
+            returnValues[i] = r;
+        }
+        //the column is contiguous, the rows past size are ignored
+        returns.data().setData(returnValues);
+        return rows(returns);
+    }
+
+    private INDArray rows(INDArray buffer) {
+        return size == capacity ? buffer : ExpReplayBatch.rows(buffer, 0, size);
+    }
+
+}
@@ -13,6 +13,16 @@ public class A3CConfiguration implements AsyncConfiguration {
     private final double rewardFactor;
     private final double gamma;
     private final double errorClamp;
+    private boolean mergeGradients = false;
+    private boolean hogwild = false;
+    private boolean sharedUpdater = false;
+    private int inferenceBatchSize = 0;
+    private long inferenceMaxWaitMicros = 1000;
+    private int maxStaleness = -1;
+    private boolean downWeightStale = false;
+    private int maxQueueSize = 0;
+    private int evaluationEpisodes = 0;
+    private long evaluationIntervalMillis = 20000;
 
     public A3CConfiguration(int seed, int maxEpochStep, int maxStep, int numThread, int nstep, int updateStart,
                             double rewardFactor, double gamma, double errorClamp) {
@@ -76,4 +86,154 @@ public class A3CConfiguration implements AsyncConfiguration {
         return -1;
     }
 
+    public double getTargetUpdateTau() {
+        return 1.0;
+    }
+
+    /**
+     * @return true if the gradients pending in the global thread are summed and applied at once
+     */
+    @Override
+    public boolean isMergeGradients() {
+        return mergeGradients;
+    }
+
+    public A3CConfiguration setMergeGradients(boolean mergeGradients) {
+        this.mergeGradients = mergeGradients;
+        return this;
+    }
+
+    /**
+     * @return true if the threads apply their gradients to the shared model themselves without lock (Hogwild!)
+     * instead of through the global thread
+     */
+    @Override
+    public boolean isHogwild() {
+        return hogwild;
+    }
+
+    public A3CConfiguration setHogwild(boolean hogwild) {
+        this.hogwild = hogwild;
+        return this;
+    }
+
+    /**
+     * @return true if in Hogwild! mode the updater state (RMSProp g...) of the shared model is used by all the
+     * threads under lock, instead of the one of their own model
+     */
+    @Override
+    public boolean isSharedUpdater() {
+        return sharedUpdater;
+    }
+
+    public A3CConfiguration setSharedUpdater(boolean sharedUpdater) {
+        this.sharedUpdater = sharedUpdater;
+        return this;
+    }
+
+    /**
+     * @return max size of the batches of the inference server, 0 if every thread runs its own copy of the model
+     */
+    @Override
+    public int getInferenceBatchSize() {
+        return inferenceBatchSize;
+    }
+
+    public A3CConfiguration setInferenceBatchSize(int inferenceBatchSize) {
+        if (inferenceBatchSize < 0)
+            throw new IllegalArgumentException("inferenceBatchSize must be positive or 0");
+        this.inferenceBatchSize = inferenceBatchSize;
+        return this;
+    }
+
+    /**
+     * @return max time in microseconds an input waits for others before its batch is run by the inference server
+     */
+    @Override
+    public long getInferenceMaxWaitMicros() {
+        return inferenceMaxWaitMicros;
+    }
+
+    public A3CConfiguration setInferenceMaxWaitMicros(long inferenceMaxWaitMicros) {
+        if (inferenceMaxWaitMicros < 0)
+            throw new IllegalArgumentException("inferenceMaxWaitMicros must be positive or 0");
+        this.inferenceMaxWaitMicros = inferenceMaxWaitMicros;
+        return this;
+    }
+
+    /**
+     * @return max number of versions of the model published since the parameters a gradient was computed on,
+     * -1 for no limit
+     */
+    @Override
+    public int getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public A3CConfiguration setMaxStaleness(int maxStaleness) {
+        if (maxStaleness < -1)
+            throw new IllegalArgumentException("maxStaleness must be positive, 0 or -1");
+        this.maxStaleness = maxStaleness;
+        return this;
+    }
+
+    /**
+     * @return true if the gradients staler than maxStaleness are down-weighted instead of dropped
+     */
+    @Override
+    public boolean isDownWeightStale() {
+        return downWeightStale;
+    }
+
+    public A3CConfiguration setDownWeightStale(boolean downWeightStale) {
+        this.downWeightStale = downWeightStale;
+        return this;
+    }
+
+    /**
+     * @return max number of gradients pending in the global thread before the threads block, 0 for no limit
+     */
+    @Override
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public A3CConfiguration setMaxQueueSize(int maxQueueSize) {
+        if (maxQueueSize < 0)
+            throw new IllegalArgumentException("maxQueueSize must be positive or 0");
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    /**
+     * @return number of episodes played in parallel at every evaluation, 0 to play a single one
+     * on the training thread with the live model
+     */
+    @Override
+    public int getEvaluationEpisodes() {
+        return evaluationEpisodes;
+    }
+
+    public A3CConfiguration setEvaluationEpisodes(int evaluationEpisodes) {
+        if (evaluationEpisodes < 0)
+            throw new IllegalArgumentException("evaluationEpisodes must be positive or 0");
+        this.evaluationEpisodes = evaluationEpisodes;
+        return this;
+    }
+
+    /**
+     * @return time between two evaluations in milliseconds
+     */
+    @Override
+    public long getEvaluationIntervalMillis() {
+        return evaluationIntervalMillis;
+    }
+
+    public A3CConfiguration setEvaluationIntervalMillis(long evaluationIntervalMillis) {
+        if (evaluationIntervalMillis <= 0)
+            throw new IllegalArgumentException("evaluationIntervalMillis must be positive");
+        this.evaluationIntervalMillis = evaluationIntervalMillis;
+        return this;
+    }
+
 }
@@ -62,6 +62,11 @@ public abstract class A3CDiscrete<O extends Encodable> extends AsyncLearning<O,
         return policy;
     }
 
+    @Override
+    protected Policy<O, Integer> getEvaluationPolicy(IActorCritic net) {
+        return new ACPolicy<>(net, true);
+    }
+
     @Override
     public DataManager getDataManager() {
         return dataManager;
@@ -3,11 +3,10 @@ package org.deeplearning4j.rl4j.learning.async.a3c.discrete;
 
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
-import org.deeplearning4j.nn.gradient.Gradient;
-import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.rl4j.learning.async.AsyncGlobal;
 import org.deeplearning4j.rl4j.learning.async.AsyncThreadDiscrete;
-import org.deeplearning4j.rl4j.learning.async.MiniTrans;
+import org.deeplearning4j.rl4j.learning.async.Rollout;
 import org.deeplearning4j.rl4j.mdp.MDP;
 import org.deeplearning4j.rl4j.network.ac.IActorCritic;
 import org.deeplearning4j.rl4j.policy.ACPolicy;
@@ -15,9 +14,7 @@ import org.deeplearning4j.rl4j.policy.Policy;
 
 import org.deeplearning4j.rl4j.util.DataManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 
-import java.util.Stack;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) 7/23/16.
@@ -74,42 +71,21 @@ class A3CThreadDiscrete<O extends Encodable> extends AsyncThreadDiscrete<O, IAct
     }
 
     /**
-     *  calc the gradients based on the n-step rewards
+     *  calc the targets based on the n-step rewards
      */
     @Override
-    public Gradient[] calcGradient(IActorCritic iac, Stack<MiniTrans<Integer>> rewards) {
-        MiniTrans<Integer> minTrans = rewards.pop();
-
-        int size = rewards.size();
-
-        int[] shape = getHistoryProcessor() == null ? mdp.getObservationSpace().getShape() :
-                getHistoryProcessor().getConf().getShape();
-        int[] nshape = Learning.makeShape(size, shape);
-
-        INDArray input = Nd4j.create(nshape);
-        INDArray targets = Nd4j.create(size, 1);
-        INDArray logSoftmax = Nd4j.create(size, mdp.getActionSpace().getSize());
-
-        double r = minTrans.getReward();
-        for (int i = 0; i < size; i++) {
-            minTrans = rewards.pop();
-
-
-            r = minTrans.getReward() + conf.getGamma() * r;
-            input.putRow(i, minTrans.getObs());
-
-            //the critic
-            targets.putScalar(i, r);
-
-            //the actor
-            INDArray row = minTrans.getOutput()[1];
-            double prevV = row.getDouble(minTrans.getAction());
-            double expectedV =  minTrans.getOutput()[0].getDouble(0);
-            double advantage = r - expectedV;
-            row = row.putScalar(minTrans.getAction(), prevV + advantage);
-            logSoftmax.putRow(i, row);
+    public Pair<INDArray, INDArray[]> calcTargets(Rollout rollout) {
+        INDArray returns = rollout.computeReturns(conf.getGamma());
+
+        //the critic targets the returns, the actor its output plus the advantage on the action taken
+        INDArray values = rollout.getOutput(0);
+        INDArray logSoftmax = rollout.getLabels(1).assign(rollout.getOutput(1));
+        for (int i = 0; i < rollout.getSize(); i++) {
+            int action = rollout.getAction(i);
+            double advantage = returns.getDouble(i, 0) - values.getDouble(i, 0);
+            logSoftmax.putScalar(i, action, logSoftmax.getDouble(i, action) + advantage);
         }
 
-        return iac.gradient(input, new INDArray[]{targets, logSoftmax});
+        return new Pair<>(rollout.getObs(), new INDArray[]{returns, logSoftmax});
     }
-}
\ No newline at end of file
+}
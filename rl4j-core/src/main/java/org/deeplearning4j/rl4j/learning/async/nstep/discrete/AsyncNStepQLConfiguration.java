@@ -15,10 +15,34 @@ public class AsyncNStepQLConfiguration implements AsyncConfiguration {
     private final double errorClamp;
     private final float minEpsilon;
     private final int epsilonNbStep;
+    private final double targetUpdateTau;
+    private boolean mergeGradients = false;
+    private boolean hogwild = false;
+    private boolean sharedUpdater = false;
+    private int inferenceBatchSize = 0;
+    private long inferenceMaxWaitMicros = 1000;
+    private int maxStaleness = -1;
+    private boolean downWeightStale = false;
+    private int maxQueueSize = 0;
+    private int evaluationEpisodes = 0;
+    private long evaluationIntervalMillis = 20000;
 
     public AsyncNStepQLConfiguration(int seed, int maxEpochStep, int maxStep, int numThread, int nstep,
                                      int targetDqnUpdateFreq, int updateStart, double rewardFactor,
                                      double gamma, double errorClamp, float minEpsilon, int epsilonNbStep) {
+        this(seed, maxEpochStep, maxStep, numThread, nstep, targetDqnUpdateFreq, updateStart, rewardFactor,
+                gamma, errorClamp, minEpsilon, epsilonNbStep, 1.0);
+    }
+
+    /**
+     * @param targetUpdateTau rate of the soft update of the target network every targetDqnUpdateFreq steps, 1 for a copy
+     */
+    public AsyncNStepQLConfiguration(int seed, int maxEpochStep, int maxStep, int numThread, int nstep,
+                                     int targetDqnUpdateFreq, int updateStart, double rewardFactor,
+                                     double gamma, double errorClamp, float minEpsilon, int epsilonNbStep,
+                                     double targetUpdateTau) {
+        if (targetUpdateTau <= 0 || targetUpdateTau > 1)
+            throw new IllegalArgumentException("tau must be in (0, 1]");
         this.seed = seed;
         this.maxEpochStep = maxEpochStep;
         this.maxStep = maxStep;
@@ -31,6 +55,7 @@ public class AsyncNStepQLConfiguration implements AsyncConfiguration {
         this.errorClamp = errorClamp;
         this.minEpsilon = minEpsilon;
         this.epsilonNbStep = epsilonNbStep;
+        this.targetUpdateTau = targetUpdateTau;
     }
 
     @Override
@@ -91,6 +116,157 @@ public class AsyncNStepQLConfiguration implements AsyncConfiguration {
         return epsilonNbStep;
     }
 
+    @Override
+    public double getTargetUpdateTau() {
+        return targetUpdateTau;
+    }
+
+    /**
+     * @return true if the gradients pending in the global thread are summed and applied at once
+     */
+    @Override
+    public boolean isMergeGradients() {
+        return mergeGradients;
+    }
+
+    public AsyncNStepQLConfiguration setMergeGradients(boolean mergeGradients) {
+        this.mergeGradients = mergeGradients;
+        return this;
+    }
+
+    /**
+     * @return true if the threads apply their gradients to the shared model themselves without lock (Hogwild!)
+     * instead of through the global thread
+     */
+    @Override
+    public boolean isHogwild() {
+        return hogwild;
+    }
+
+    public AsyncNStepQLConfiguration setHogwild(boolean hogwild) {
+        this.hogwild = hogwild;
+        return this;
+    }
+
+    /**
+     * @return true if in Hogwild! mode the updater state (RMSProp g...) of the shared model is used by all the
+     * threads under lock, instead of the one of their own model
+     */
+    @Override
+    public boolean isSharedUpdater() {
+        return sharedUpdater;
+    }
+
+    public AsyncNStepQLConfiguration setSharedUpdater(boolean sharedUpdater) {
+        this.sharedUpdater = sharedUpdater;
+        return this;
+    }
+
+    /**
+     * @return max size of the batches of the inference server, 0 if every thread runs its own copy of the model
+     */
+    @Override
+    public int getInferenceBatchSize() {
+        return inferenceBatchSize;
+    }
+
+    public AsyncNStepQLConfiguration setInferenceBatchSize(int inferenceBatchSize) {
+        if (inferenceBatchSize < 0)
+            throw new IllegalArgumentException("inferenceBatchSize must be positive or 0");
+        this.inferenceBatchSize = inferenceBatchSize;
+        return this;
+    }
+
+    /**
+     * @return max time in microseconds an input waits for others before its batch is run by the inference server
+     */
+    @Override
+    public long getInferenceMaxWaitMicros() {
+        return inferenceMaxWaitMicros;
+    }
+
+    public AsyncNStepQLConfiguration setInferenceMaxWaitMicros(long inferenceMaxWaitMicros) {
+        if (inferenceMaxWaitMicros < 0)
+            throw new IllegalArgumentException("inferenceMaxWaitMicros must be positive or 0");
+        this.inferenceMaxWaitMicros = inferenceMaxWaitMicros;
+        return this;
+    }
+
+    /**
+     * @return max number of versions of the model published since the parameters a gradient was computed on,
+     * -1 for no limit
+     */
+    @Override
+    public int getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public AsyncNStepQLConfiguration setMaxStaleness(int maxStaleness) {
+        if (maxStaleness < -1)
+            throw new IllegalArgumentException("maxStaleness must be positive, 0 or -1");
+        this.maxStaleness = maxStaleness;
+        return this;
+    }
+
+    /**
+     * @return true if the gradients staler than maxStaleness are down-weighted instead of dropped
+     */
+    @Override
+    public boolean isDownWeightStale() {
+        return downWeightStale;
+    }
+
+    public AsyncNStepQLConfiguration setDownWeightStale(boolean downWeightStale) {
+        this.downWeightStale = downWeightStale;
+        return this;
+    }
+
+    /**
+     * @return max number of gradients pending in the global thread before the threads block, 0 for no limit
+     */
+    @Override
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public AsyncNStepQLConfiguration setMaxQueueSize(int maxQueueSize) {
+        if (maxQueueSize < 0)
+            throw new IllegalArgumentException("maxQueueSize must be positive or 0");
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    /**
+     * @return number of episodes played in parallel at every evaluation, 0 to play a single one
+     * on the training thread with the live model
+     */
+    @Override
+    public int getEvaluationEpisodes() {
+        return evaluationEpisodes;
+    }
+
+    public AsyncNStepQLConfiguration setEvaluationEpisodes(int evaluationEpisodes) {
+        if (evaluationEpisodes < 0)
+            throw new IllegalArgumentException("evaluationEpisodes must be positive or 0");
+        this.evaluationEpisodes = evaluationEpisodes;
+        return this;
+    }
+
+    /**
+     * @return time between two evaluations in milliseconds
+     */
+    @Override
+    public long getEvaluationIntervalMillis() {
+        return evaluationIntervalMillis;
+    }
+
+    public AsyncNStepQLConfiguration setEvaluationIntervalMillis(long evaluationIntervalMillis) {
+        if (evaluationIntervalMillis <= 0)
+            throw new IllegalArgumentException("evaluationIntervalMillis must be positive");
+        this.evaluationIntervalMillis = evaluationIntervalMillis;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         // TODO make sure this is correct.
@@ -110,7 +286,18 @@ public class AsyncNStepQLConfiguration implements AsyncConfiguration {
         if (Double.compare(that.getGamma(), gamma) != 0) return false;
         if (Double.compare(that.getErrorClamp(), errorClamp) != 0) return false;
         if (Float.compare(that.getMinEpsilon(), minEpsilon) != 0) return false;
-        return epsilonNbStep == that.getEpsilonNbStep();
+        if (epsilonNbStep != that.getEpsilonNbStep()) return false;
+        if (Double.compare(that.getTargetUpdateTau(), targetUpdateTau) != 0) return false;
+        if (mergeGradients != that.isMergeGradients()) return false;
+        if (hogwild != that.isHogwild()) return false;
+        if (sharedUpdater != that.isSharedUpdater()) return false;
+        if (inferenceBatchSize != that.getInferenceBatchSize()) return false;
+        if (inferenceMaxWaitMicros != that.getInferenceMaxWaitMicros()) return false;
+        if (maxStaleness != that.getMaxStaleness()) return false;
+        if (downWeightStale != that.isDownWeightStale()) return false;
+        if (maxQueueSize != that.getMaxQueueSize()) return false;
+        if (evaluationEpisodes != that.getEvaluationEpisodes()) return false;
+        return evaluationIntervalMillis == that.getEvaluationIntervalMillis();
 
     }
 
@@ -133,6 +320,18 @@ public class AsyncNStepQLConfiguration implements AsyncConfiguration {
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + (minEpsilon != +0.0f ? Float.floatToIntBits(minEpsilon) : 0);
         result = 31 * result + epsilonNbStep;
+        temp = Double.doubleToLongBits(targetUpdateTau);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + (mergeGradients ? 1 : 0);
+        result = 31 * result + (hogwild ? 1 : 0);
+        result = 31 * result + (sharedUpdater ? 1 : 0);
+        result = 31 * result + inferenceBatchSize;
+        result = 31 * result + (int) (inferenceMaxWaitMicros ^ (inferenceMaxWaitMicros >>> 32));
+        result = 31 * result + maxStaleness;
+        result = 31 * result + (downWeightStale ? 1 : 0);
+        result = 31 * result + maxQueueSize;
+        result = 31 * result + evaluationEpisodes;
+        result = 31 * result + (int) (evaluationIntervalMillis ^ (evaluationIntervalMillis >>> 32));
         return result;
     }
 }
\ No newline at end of file
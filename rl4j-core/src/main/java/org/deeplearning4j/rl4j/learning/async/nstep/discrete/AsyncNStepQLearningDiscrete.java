@@ -46,6 +46,11 @@ public abstract class AsyncNStepQLearningDiscrete<O extends Encodable>
         return new DQNPolicy<>(getNeuralNet());
     }
 
+    @Override
+    protected Policy<O, Integer> getEvaluationPolicy(IDQN net) {
+        return new DQNPolicy<>(net);
+    }
+
     @Override
     public AsyncNStepQLConfiguration getConfiguration() {
         return configuration;
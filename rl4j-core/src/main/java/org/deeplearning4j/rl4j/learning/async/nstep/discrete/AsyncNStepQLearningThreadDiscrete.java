@@ -2,11 +2,10 @@ package org.deeplearning4j.rl4j.learning.async.nstep.discrete;
 
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
-import org.deeplearning4j.nn.gradient.Gradient;
-import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.rl4j.learning.async.AsyncGlobal;
 import org.deeplearning4j.rl4j.learning.async.AsyncThreadDiscrete;
-import org.deeplearning4j.rl4j.learning.async.MiniTrans;
+import org.deeplearning4j.rl4j.learning.async.Rollout;
 import org.deeplearning4j.rl4j.mdp.MDP;
 import org.deeplearning4j.rl4j.network.dqn.IDQN;
 import org.deeplearning4j.rl4j.policy.DQNPolicy;
@@ -14,9 +13,7 @@ import org.deeplearning4j.rl4j.policy.EpsGreedy;
 import org.deeplearning4j.rl4j.policy.Policy;
 import org.deeplearning4j.rl4j.util.DataManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 
-import java.util.Stack;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) on 8/5/16.
@@ -70,29 +67,15 @@ class AsyncNStepQLearningThreadDiscrete<O extends Encodable> extends AsyncThread
         return dataManager;
     }
 
-    //calc the gradient based on the n-step rewards
-    public Gradient[] calcGradient(IDQN current, Stack<MiniTrans<Integer>> rewards) {
+    //calc the targets based on the n-step rewards
+    public Pair<INDArray, INDArray[]> calcTargets(Rollout rollout) {
+        INDArray returns = rollout.computeReturns(conf.getGamma());
 
-        MiniTrans<Integer> minTrans = rewards.pop();
-
-        int size = rewards.size();
-
-        int[] shape = getHistoryProcessor() == null ? mdp.getObservationSpace().getShape() : getHistoryProcessor().getConf().getShape();
-        int[] nshape = Learning.makeShape(size, shape);
-        INDArray input = Nd4j.create(nshape);
-        INDArray targets = Nd4j.create(size, mdp.getActionSpace().getSize());
-
-        double r = minTrans.getReward();
-        for (int i = 0; i < size; i++) {
-            minTrans = rewards.pop();
-
-            r = minTrans.getReward() + conf.getGamma() * r;
-            input.putRow(i, minTrans.getObs());
-            INDArray row = minTrans.getOutput()[0];
-            row = row.putScalar(minTrans.getAction(), r);
-            targets.putRow(i, row);
+        INDArray targets = rollout.getLabels(0).assign(rollout.getOutput(0));
+        for (int i = 0; i < rollout.getSize(); i++) {
+            targets.putScalar(i, rollout.getAction(i), returns.getDouble(i, 0));
         }
 
-        return current.gradient(input, targets);
+        return new Pair<>(rollout.getObs(), new INDArray[]{targets});
     }
-}
\ No newline at end of file
+}
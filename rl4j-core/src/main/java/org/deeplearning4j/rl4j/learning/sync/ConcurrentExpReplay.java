@@ -0,0 +1,115 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free Exp Replay for several actor threads storing transitions
+ * while a single learner thread samples them.
+ *
+ * A writer claims the next slot of the ring with an atomic cursor and publishes its
+ * transition with a volatile write: writers never wait for each other nor for the learner.
+ * A transition is never modified once stored, so the learner always reads whole
+ * transitions, at worst a newer one than the slot held when it was drawn.
+ * Slots claimed but not yet published are drawn again, up to MAX_TRIES times:
+ * a batch drawn while the ring is first filled may then be short, see getBatch.
+ *
+ * Sampling is not thread-safe: only one thread may call getBatch.
+ */
+public class ConcurrentExpReplay<A> implements IExpReplay<A> {
+
+    final private static int MAX_TRIES = 100;
+
+    final private Logger log = LoggerFactory.getLogger("Concurrent Exp Replay");
+
+    final private int maxSize;
+    final private int batchSize;
+    final private AtomicReferenceArray<Transition<A>> storage;
+    final private AtomicLong cursor = new AtomicLong();
+
+    //learner thread only
+    final private IndexSampler sampler = new IndexSampler();
+
+    public ConcurrentExpReplay(int maxSize, int batchSize) {
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+        storage = new AtomicReferenceArray<>(maxSize);
+    }
+
+    public ArrayList<Transition<A>> getBatch(int size) {
+        int[] slots = new int[size];
+        int drawn = sample(slots, size);
+
+        ArrayList<Transition<A>> batch = new ArrayList<>(drawn);
+        for (int i = 0; i < drawn; i++) {
+            batch.add(storage.get(slots[i]).dup());
+        }
+        return batch;
+    }
+
+    public ArrayList<Transition<A>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    /**
+     * The batch is short, batch.getSize() below its capacity, if slots claimed by writers
+     * were still not published after MAX_TRIES draws: the learner skips an empty batch
+     * and trains on the rows of a short one.
+     */
+    public void getBatch(ExpReplayBatch batch) {
+        int[] slots = batch.getIndices();
+        int size = sample(slots, batch.getCapacity());
+
+        for (int i = 0; i < size; i++) {
+            batch.put(i, storage.get(slots[i]), slots[i]);
+        }
+        batch.finish(size, false);
+    }
+
+    /**
+     * Draw up to n slots of published transitions, written at the start of slots
+     * @return the number of slots drawn, n unless unpublished slots were drawn MAX_TRIES times in a row
+     */
+    private int sample(int[] slots, int n) {
+        int available = (int) Math.min(cursor.get(), maxSize);
+        if (available == 0)
+            return 0;
+
+        sampler.sample(available, slots, n);
+        int drawn = 0;
+        for (int i = 0; i < n; i++) {
+            int slot = slots[i];
+            //only possible while the ring is being filled for the first time
+            for (int tries = 0; storage.get(slot) == null && tries < MAX_TRIES; tries++)
+                slot = sampler.nextInt(available);
+            //a published slot is never unpublished
+            if (storage.get(slot) != null)
+                slots[drawn++] = slot;
+        }
+        if (drawn < n)
+            log.debug("short batch of " + drawn + " transitions");
+        return drawn;
+    }
+
+    public void updatePriorities(ExpReplayBatch batch) {
+        //uniform sampling
+    }
+
+    public void store(Transition<A> transition) {
+        long id = cursor.getAndIncrement();
+        storage.set((int) (id % maxSize), transition);
+        log.debug("size: " + Math.min(id + 1, maxSize));
+    }
+
+    /**
+     * @return number of transitions ever stored (or being stored)
+     */
+    public long getCount() {
+        return cursor.get();
+    }
+
+}
@@ -4,7 +4,7 @@ import org.apache.commons.collections4.queue.CircularFifoQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.*;
+import java.util.ArrayList;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) 7/12/16.
@@ -19,6 +19,7 @@ public class ExpReplay<A> implements IExpReplay<A> {
     final private Logger log = LoggerFactory.getLogger("Exp Replay");
 
     final private int batchSize;
+    final private IndexSampler sampler = new IndexSampler();
 
     //Implementing this as a circular buffer queue
     private CircularFifoQueue<Transition<A>> storage;
@@ -31,17 +32,12 @@ public class ExpReplay<A> implements IExpReplay<A> {
 
     public ArrayList<Transition<A>> getBatch(int size) {
 
-        Random random = new Random();
-        Set<Integer> intSet = new HashSet<>();
-        int storageSize = storage.size();
-        while (intSet.size() < size) {
-            int rd = random.nextInt(storageSize);
-            intSet.add(rd);
-        }
+        int[] indices = new int[size];
+        sampler.sample(storage.size(), indices, size);
 
         ArrayList<Transition<A>> batch = new ArrayList<>(size);
-        for (Integer anIntSet : intSet) {
-            Transition<A> trans = storage.get(anIntSet);
+        for (int index : indices) {
+            Transition<A> trans = storage.get(index);
             batch.add(trans.dup());
         }
 
@@ -52,6 +48,26 @@ public class ExpReplay<A> implements IExpReplay<A> {
         return getBatch(batchSize);
     }
 
+    public void getBatch(ExpReplayBatch batch) {
+        int storageSize = storage.size();
+        if (storageSize == 0) {
+            batch.finish(0, false);
+            return;
+        }
+
+        int size = batch.getCapacity();
+        int[] indices = batch.getIndices();
+        sampler.sample(storageSize, indices, size);
+        for (int i = 0; i < size; i++) {
+            batch.put(i, storage.get(indices[i]), indices[i]);
+        }
+        batch.finish(size, false);
+    }
+
+    public void updatePriorities(ExpReplayBatch batch) {
+        //uniform sampling
+    }
+
     public void store(Transition<A> transition) {
         storage.add(transition);
         log.debug("size: "+storage.size());
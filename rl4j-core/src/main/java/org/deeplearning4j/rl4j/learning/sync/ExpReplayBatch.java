@@ -0,0 +1,271 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.BasicNDArrayCompressor;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+/**
+ * Preallocated buffers that an exp replay fills in place with a sampled batch,
+ * so that a training step does not allocate anything proportional to the batch size.
+ *
+ * obs and nextObs have one row per transition, laid out as Transition.concat does
+ * (pixels are scaled by 1/256). Actions are written as their index in a
+ * discrete action space.
+ *
+ * The buffers are owned by the caller and reused from one batch to the other,
+ * only the first getSize() rows are valid.
+ *
+ * obs and nextObs are the two halves of a single stacked array, so that both can
+ * go through a network in a single forward pass without any copy.
+ *
+ * The learner writes the batch into columns for its targets with prepareTargets,
+ * the arrays being allocated on the first call only.
+ */
+public class ExpReplayBatch {
+
+    final private static BasicNDArrayCompressor compressor = BasicNDArrayCompressor.getInstance();
+
+    final private int capacity;
+    final private int[] shape;
+    final private INDArray stacked;
+    final private INDArray obs;
+    final private INDArray nextObs;
+    final private int[] actions;
+    final private double[] rewards;
+    final private boolean[] terminal;
+    final private int[] indices;
+    final private double[] weights;
+    final private double[] tdErrors;
+    private int size = 0;
+    private boolean weighted = false;
+    private INDArray targetNextOutput = null;
+    //columns of the targets, of capacity rows
+    private INDArray actionMask = null;
+    private INDArray rewardColumn = null;
+    private INDArray notTerminalColumn = null;
+    private INDArray weightColumn = null;
+
+    /**
+     * @param capacity max number of transitions
+     * @param shape shape of the input of a single transition (without the batch dimension)
+     */
+    public ExpReplayBatch(int capacity, int[] shape) {
+        this.capacity = capacity;
+        this.shape = shape;
+        int[] nshape = new int[shape.length + 1];
+        nshape[0] = 2 * capacity;
+        System.arraycopy(shape, 0, nshape, 1, shape.length);
+        stacked = Nd4j.create(nshape);
+        obs = rows(stacked, 0, capacity);
+        nextObs = rows(stacked, capacity, 2 * capacity);
+        actions = new int[capacity];
+        rewards = new double[capacity];
+        terminal = new boolean[capacity];
+        indices = new int[capacity];
+        weights = new double[capacity];
+        tdErrors = new double[capacity];
+    }
+
+    /**
+     * Write the transition at row i
+     * @param i row
+     * @param transition transition to write
+     * @param index index of the transition in the exp replay
+     */
+    public void put(int i, Transition<?> transition, int index) {
+        INDArray[] history = transition.getObservation();
+        INDArray row = row(obs, i);
+        INDArray nextRow = row(nextObs, i);
+        if (history.length == 1) {
+            row.assign(decompress(history[0]));
+            nextRow.assign(decompress(transition.getNextObservation()));
+        } else {
+            int last = history.length - 1;
+            for (int j = 0; j <= last; j++) {
+                INDArray frame = decompress(history[j]);
+                row.slice(j).assign(frame);
+                //the next history is the history without its oldest frame, followed by the next observation
+                if (j > 0)
+                    nextRow.slice(j - 1).assign(frame);
+            }
+            nextRow.slice(last).assign(decompress(transition.getNextObservation()));
+        }
+
+        actions[i] = ((Number) transition.getAction()).intValue();
+        rewards[i] = transition.getReward();
+        terminal[i] = transition.isTerminal();
+        indices[i] = index;
+    }
+
+    /**
+     * Mark the first size rows as the sampled batch and scale pixels as Transition.concat does
+     * @param size number of rows written
+     * @param weighted true if the weights were written (prioritized sampling)
+     */
+    public void finish(int size, boolean weighted) {
+        this.size = size;
+        this.weighted = weighted;
+        targetNextOutput = null;
+        //only the rows written: obs and nextObs are not contiguous below capacity
+        if (shape.length > 2 && size > 0) {
+            rows(obs, 0, size).muli(1 / 256f);
+            rows(nextObs, 0, size).muli(1 / 256f);
+        }
+    }
+
+    /**
+     * Write the one-hot actions, rewards, not terminal flags and weights (if any) of the
+     * batch into the target columns, allocated on the first call
+     * @param nbActions number of actions of the discrete action space
+     */
+    public void prepareTargets(int nbActions) {
+        if (actionMask == null || actionMask.columns() != nbActions) {
+            actionMask = Nd4j.zeros(capacity, nbActions);
+            rewardColumn = Nd4j.create(capacity, 1);
+            notTerminalColumn = Nd4j.create(capacity, 1);
+            weightColumn = Nd4j.create(capacity, 1);
+        } else
+            actionMask.assign(0);
+
+        for (int i = 0; i < size; i++) {
+            actionMask.putScalar(i, actions[i], 1);
+            rewardColumn.putScalar(i, rewards[i]);
+            notTerminalColumn.putScalar(i, terminal[i] ? 0 : 1);
+            if (weighted)
+                weightColumn.putScalar(i, weights[i]);
+        }
+    }
+
+    /**
+     * Copy the TD-errors of the batch into getTdErrors()
+     * @param delta column of at least getSize() rows
+     */
+    public void setTdErrors(INDArray delta) {
+        for (int i = 0; i < size; i++)
+            tdErrors[i] = delta.getDouble(i);
+    }
+
+    /**
+     * @return one-hot actions of the batch, [size, nbActions], may be modified until the next prepareTargets
+     */
+    public INDArray getActionMask() {
+        return rows(actionMask, 0, size);
+    }
+
+    /**
+     * @return rewards of the batch, [size, 1]
+     */
+    public INDArray getRewardColumn() {
+        return rows(rewardColumn, 0, size);
+    }
+
+    /**
+     * @return 0 for the terminal transitions of the batch and 1 for the others, [size, 1]
+     */
+    public INDArray getNotTerminalColumn() {
+        return rows(notTerminalColumn, 0, size);
+    }
+
+    /**
+     * @return importance-sampling weights of the batch, [size, 1], only valid if isWeighted()
+     */
+    public INDArray getWeightColumn() {
+        return rows(weightColumn, 0, size);
+    }
+
+    /**
+     * @return rows [from, to) of a batch, as a view
+     */
+    public static INDArray rows(INDArray batch, int from, int to) {
+        INDArrayIndex[] indices = new INDArrayIndex[batch.rank()];
+        indices[0] = NDArrayIndex.interval(from, to);
+        for (int i = 1; i < indices.length; i++)
+            indices[i] = NDArrayIndex.all();
+        return batch.get(indices);
+    }
+
+    private static INDArray row(INDArray batch, int i) {
+        return batch.rank() > 2 ? batch.slice(i) : batch.getRow(i);
+    }
+
+    private static INDArray decompress(INDArray frame) {
+        return frame.isCompressed() ? compressor.decompress(frame) : frame;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int[] getShape() {
+        return shape;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    public INDArray getObs() {
+        return obs;
+    }
+
+    public INDArray getNextObs() {
+        return nextObs;
+    }
+
+    /**
+     * @return obs followed by nextObs, of 2 * capacity rows
+     */
+    public INDArray getStacked() {
+        return stacked;
+    }
+
+    public int[] getActions() {
+        return actions;
+    }
+
+    public double[] getRewards() {
+        return rewards;
+    }
+
+    public boolean[] getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * @return indices of the transitions in the exp replay
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @return importance-sampling weights, only valid if isWeighted()
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * @return TD-errors to be filled by the learner before feeding them back to a prioritized exp replay
+     */
+    public double[] getTdErrors() {
+        return tdErrors;
+    }
+
+    /**
+     * @return output of the target network on nextObs if it was computed ahead (prefetch), null otherwise
+     */
+    public INDArray getTargetNextOutput() {
+        return targetNextOutput;
+    }
+
+    public void setTargetNextOutput(INDArray targetNextOutput) {
+        this.targetNextOutput = targetNextOutput;
+    }
+}
@@ -0,0 +1,108 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Samples and assembles the next batches on a worker thread while the
+ * learner fits the current one.
+ *
+ * depth + 1 ExpReplayBatch are allocated once and cycle between a queue of
+ * free buffers and a bounded queue of ready batches: the worker blocks when
+ * depth batches are ready and the learner blocks when none is.
+ *
+ * The exp replay is used as the lock between the worker and the thread that
+ * stores transitions or updates priorities: they must synchronize on it too.
+ * A prefetched batch is thus sampled before the latest transitions are stored.
+ */
+public class ExpReplayPrefetcher extends Thread {
+
+    final private static long POLL_TIMEOUT_MS = 100;
+
+    final private Logger log = LoggerFactory.getLogger("Exp Replay Prefetcher");
+    final private IExpReplay<?> expReplay;
+    final private Consumer<ExpReplayBatch> assembler;
+    final private BlockingQueue<ExpReplayBatch> free;
+    final private BlockingQueue<ExpReplayBatch> ready;
+    private volatile boolean running = true;
+    private volatile RuntimeException error = null;
+
+    /**
+     * @param expReplay the exp replay to sample from
+     * @param depth max number of batches prefetched in advance
+     * @param batchSize size of the batches
+     * @param shape shape of the input of a single transition
+     * @param assembler additional work done on a batch once sampled (by example a target network pass), can be null
+     */
+    public ExpReplayPrefetcher(IExpReplay<?> expReplay, int depth, int batchSize, int[] shape,
+                               Consumer<ExpReplayBatch> assembler) {
+        super("ExpReplay-prefetch");
+        setDaemon(true);
+        this.expReplay = expReplay;
+        this.assembler = assembler;
+        free = new ArrayBlockingQueue<>(depth + 1);
+        ready = new ArrayBlockingQueue<>(depth);
+        for (int i = 0; i < depth + 1; i++) {
+            free.add(new ExpReplayBatch(batchSize, shape));
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                ExpReplayBatch batch = free.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (batch == null)
+                    continue;
+                synchronized (expReplay) {
+                    expReplay.getBatch(batch);
+                }
+                if (assembler != null && batch.getSize() > 0)
+                    assembler.accept(batch);
+                while (running && !ready.offer(batch, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Prefetch crashed");
+            error = e;
+        }
+    }
+
+    /**
+     * @return the next prefetched batch, to be given back with release once used
+     */
+    public ExpReplayBatch take() {
+        try {
+            ExpReplayBatch batch;
+            while ((batch = ready.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) == null) {
+                if (error != null)
+                    throw new IllegalStateException("Exp replay prefetch failed", error);
+                if (!isAlive())
+                    throw new IllegalStateException("Exp replay prefetch is not running");
+            }
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a batch", e);
+        }
+    }
+
+    /**
+     * @param batch a batch returned by take that is not used anymore
+     */
+    public void release(ExpReplayBatch batch) {
+        free.add(batch);
+    }
+
+    public void shutdown() {
+        running = false;
+        interrupt();
+    }
+
+}
@@ -0,0 +1,279 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.BasicNDArrayCompressor;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Exp Replay for pixels input that keeps every frame only once, as uint8,
+ * in a preallocated off-heap ring of frames indexed by frame id.
+ *
+ * Histories are oldest first, as given by the HistoryProcessor. Consecutive
+ * transitions share all their frames but one: the history of a transition is the
+ * history of the previous one without its oldest frame, followed by the previous
+ * next observation. A transition is thus only stored as the id of the newest
+ * frame of its history (the next observation is the frame right after, the
+ * history the historyLength frames ending with it), its action, reward and
+ * terminal flag, all in primitive arrays.
+ *
+ * Frames are expected to be pixels in [0, 255] as given by the HistoryProcessor.
+ * The off-heap memory is bounded by -XX:MaxDirectMemorySize.
+ *
+ * A transition continuing the previous one pushes a single frame, the first
+ * transition of an episode pushes historyLength + 1 frames. The default frame
+ * ring (2 * maxSize frames) holds maxSize transitions of episodes of at least
+ * historyLength steps. Shorter episodes evict the oldest transitions before
+ * maxSize is reached: only the transitions whose frames are all still in the
+ * ring are sampled.
+ */
+public class FrameExpReplay implements IExpReplay<Integer> {
+
+    final private Logger log = LoggerFactory.getLogger("Frame Exp Replay");
+    final private static BasicNDArrayCompressor compressor = BasicNDArrayCompressor.getInstance();
+
+    final private int maxSize;
+    final private int batchSize;
+    final private int historyLength;
+    final private int[] frameShape;
+    final private int frameSize;
+
+    //frame ring: chunks of direct buffers since a single one is indexed by an int
+    final private long frameCapacity;
+    final private int framesPerChunk;
+    final private ByteBuffer[] chunks;
+    private long frameCount = 0;
+
+    //transition ring
+    final private long[] obsFrames;
+    final private int[] actions;
+    final private double[] rewards;
+    final private boolean[] terminals;
+    private long transitionCount = 0;
+    //oldest transition whose frames are all in the ring
+    private long firstValid = 0;
+
+    //last stored next observation, to detect that the next history continues it
+    private INDArray lastNextObservation = null;
+
+    final private IndexSampler sampler = new IndexSampler();
+
+    public FrameExpReplay(int maxSize, int batchSize, IHistoryProcessor.Configuration hpconf) {
+        this(maxSize, batchSize, hpconf.getHistoryLength(),
+                new int[]{1, hpconf.getCroppingHeight(), hpconf.getCroppingWidth()});
+    }
+
+    public FrameExpReplay(int maxSize, int batchSize, int historyLength, int[] frameShape) {
+        this(maxSize, batchSize, historyLength, frameShape, 2L * maxSize + historyLength + 1);
+    }
+
+    /**
+     * @param maxSize max number of transitions
+     * @param batchSize size of the batches returned by getBatch()
+     * @param historyLength number of frames in the observation of a transition
+     * @param frameShape shape of a single frame
+     * @param frameCapacity max number of frames, must be at least maxSize + historyLength + 1
+     */
+    public FrameExpReplay(int maxSize, int batchSize, int historyLength, int[] frameShape, long frameCapacity) {
+        if (frameCapacity < maxSize + historyLength + 1)
+            throw new IllegalArgumentException("frame capacity too small for " + maxSize + " transitions");
+
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+        this.historyLength = historyLength;
+        this.frameShape = frameShape;
+
+        int size = 1;
+        for (int dim : frameShape)
+            size *= dim;
+        frameSize = size;
+
+        this.frameCapacity = frameCapacity;
+        framesPerChunk = (int) Math.min(frameCapacity, Integer.MAX_VALUE / frameSize);
+        int nbChunks = (int) ((frameCapacity + framesPerChunk - 1) / framesPerChunk);
+        chunks = new ByteBuffer[nbChunks];
+        for (int i = 0; i < nbChunks; i++) {
+            long frames = Math.min(framesPerChunk, frameCapacity - (long) i * framesPerChunk);
+            chunks[i] = ByteBuffer.allocateDirect((int) frames * frameSize);
+        }
+
+        obsFrames = new long[maxSize];
+        actions = new int[maxSize];
+        rewards = new double[maxSize];
+        terminals = new boolean[maxSize];
+
+        log.info("Allocated " + (frameCapacity * frameSize >> 20) + " MB off-heap for " + frameCapacity + " frames");
+    }
+
+    public ArrayList<Transition<Integer>> getBatch(int size) {
+        int[] slots = new int[size];
+        int found = sample(slots, size);
+
+        ArrayList<Transition<Integer>> batch = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            batch.add(getTransition(slots[i]));
+        }
+
+        return batch;
+    }
+
+    public ArrayList<Transition<Integer>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    public void getBatch(ExpReplayBatch batch) {
+        int[] slots = batch.getIndices();
+        int size = sample(slots, batch.getCapacity());
+
+        INDArray obs = batch.getObs();
+        INDArray nextObs = batch.getNextObs();
+        DataBuffer obsData = obs.data();
+        DataBuffer nextObsData = nextObs.data();
+        int rowLength = historyLength * frameSize;
+
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            long obsFrame = obsFrames[slot];
+            int obsOffset = obs.offset() + i * rowLength;
+            int nextObsOffset = nextObs.offset() + i * rowLength;
+            long oldest = obsFrame - historyLength + 1;
+            for (int j = 0; j < historyLength; j++) {
+                readFrame(oldest + j, obsData, obsOffset + j * frameSize);
+                readFrame(oldest + 1 + j, nextObsData, nextObsOffset + j * frameSize);
+            }
+            batch.getActions()[i] = actions[slot];
+            batch.getRewards()[i] = rewards[slot];
+            batch.getTerminal()[i] = terminals[slot];
+        }
+
+        batch.finish(size, false);
+    }
+
+    public void updatePriorities(ExpReplayBatch batch) {
+        //uniform sampling
+    }
+
+    /**
+     * Draw slots of transitions whose frames are all in the ring
+     * @return the number of slots drawn: n, or 0 if the exp replay is empty
+     */
+    private int sample(int[] slots, int n) {
+        long first = Math.max(firstValid, transitionCount - maxSize);
+        int available = (int) (transitionCount - first);
+        if (available == 0)
+            return 0;
+
+        sampler.sample(available, slots, n);
+        for (int i = 0; i < n; i++) {
+            slots[i] = (int) ((first + slots[i]) % maxSize);
+        }
+        return n;
+    }
+
+    /**
+     * @return the number of transitions that can be sampled
+     */
+    public int getSize() {
+        return (int) (transitionCount - Math.max(firstValid, transitionCount - maxSize));
+    }
+
+    public void store(Transition<Integer> transition) {
+
+        INDArray[] history = transition.getObservation();
+        if (history.length != historyLength)
+            throw new IllegalArgumentException("history of length " + history.length + " instead of " + historyLength);
+
+        //if the history continues the last transition, its frames are all already stored
+        if (lastNextObservation == null || history[historyLength - 1] != lastNextObservation) {
+            for (INDArray frame : history) {
+                pushFrame(frame);
+            }
+        }
+        long obsFrame = frameCount - 1;
+
+        pushFrame(transition.getNextObservation());
+        lastNextObservation = transition.getNextObservation();
+
+        int slot = (int) (transitionCount % maxSize);
+        obsFrames[slot] = obsFrame;
+        actions[slot] = transition.getAction();
+        rewards[slot] = transition.getReward();
+        terminals[slot] = transition.isTerminal();
+        transitionCount++;
+
+        //evict the transitions whose oldest frames were overwritten
+        firstValid = Math.max(firstValid, transitionCount - maxSize);
+        while (firstValid < transitionCount && !isValid(firstValid))
+            firstValid++;
+
+        log.debug("size: " + Math.min(transitionCount, maxSize));
+    }
+
+    private boolean isValid(long id) {
+        long obsFrame = obsFrames[(int) (id % maxSize)];
+        return obsFrame - historyLength + 1 >= frameCount - frameCapacity;
+    }
+
+    private Transition<Integer> getTransition(int slot) {
+        long obsFrame = obsFrames[slot];
+
+        INDArray[] history = new INDArray[historyLength];
+        for (int i = 0; i < historyLength; i++) {
+            history[i] = readFrame(obsFrame - historyLength + 1 + i);
+        }
+
+        return new Transition<>(history, actions[slot], rewards[slot], terminals[slot], readFrame(obsFrame + 1));
+    }
+
+    private void pushFrame(INDArray frame) {
+        if (frame.length() != frameSize)
+            throw new IllegalArgumentException("frame of length " + frame.length() + " instead of " + frameSize);
+
+        if (frame.isCompressed())
+            frame = compressor.decompress(frame);
+        if (frame.data().length() != frameSize)
+            frame = frame.dup();
+
+        float[] values = frame.data().asFloat();
+        ByteBuffer chunk = chunk(frameCount);
+        int offset = offset(frameCount);
+        for (int i = 0; i < frameSize; i++) {
+            int pixel = Math.round(values[i]);
+            chunk.put(offset + i, (byte) Math.max(0, Math.min(255, pixel)));
+        }
+        frameCount++;
+    }
+
+    private INDArray readFrame(long frameId) {
+        float[] values = new float[frameSize];
+        ByteBuffer chunk = chunk(frameId);
+        int offset = offset(frameId);
+        for (int i = 0; i < frameSize; i++) {
+            values[i] = chunk.get(offset + i) & 0xFF;
+        }
+        return Nd4j.create(values, frameShape);
+    }
+
+    private void readFrame(long frameId, DataBuffer data, int dataOffset) {
+        ByteBuffer chunk = chunk(frameId);
+        int offset = offset(frameId);
+        for (int i = 0; i < frameSize; i++) {
+            data.put(dataOffset + i, (float) (chunk.get(offset + i) & 0xFF));
+        }
+    }
+
+    private ByteBuffer chunk(long frameId) {
+        return chunks[(int) ((frameId % frameCapacity) / framesPerChunk)];
+    }
+
+    private int offset(long frameId) {
+        return (int) ((frameId % frameCapacity) % framesPerChunk) * frameSize;
+    }
+
+}
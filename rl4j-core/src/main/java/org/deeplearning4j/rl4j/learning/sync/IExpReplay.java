@@ -7,9 +7,11 @@ import java.util.ArrayList;
  *
  * Common Interface for Experience replays
  *
- * A prioritized Exp Replay could be implemented by changing the interface
- * and integrating the TD-error in the transition for ranking
- * Not a high priority feature right now
+ * Prioritized Exp Replays rank transitions by the TD-error fed back
+ * through updatePriorities and weight them by importance-sampling.
+ *
+ * Implementations are not thread-safe unless stated otherwise,
+ * ConcurrentExpReplay accepts transitions from several threads.
  *
  * The memory is optimised by using array of INDArray in the transitions
  * such that two same INDArrays are not allocated twice
@@ -21,6 +23,24 @@ public interface IExpReplay<A> {
      */
     ArrayList<Transition<A>> getBatch();
 
+    /**
+     * Sample a batch directly into preallocated buffers, without allocating per transition.
+     * Every row is filled (with distinct transitions when there are enough of them),
+     * unless the exp replay is empty or, for ConcurrentExpReplay, not yet fully published:
+     * only the first batch.getSize() rows are valid.
+     *
+     * @param batch the buffers to fill, along with the indices and importance-sampling weights
+     */
+    void getBatch(ExpReplayBatch batch);
+
+    /**
+     * Feed back the TD-errors written in batch.getTdErrors() for transitions
+     * previously sampled in that batch. No-op for uniform exp replays.
+     *
+     * @param batch a batch filled by getBatch(ExpReplayBatch)
+     */
+    void updatePriorities(ExpReplayBatch batch);
+
     /**
      *
      * @param transition a new transition to store
@@ -0,0 +1,90 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws uniform indices into a preallocated int array without boxing nor allocation.
+ *
+ * Indices are distinct when there are enough of them (Floyd's algorithm with an
+ * open addressing set of int). The set is never cleared: a slot is only
+ * considered occupied if it was written by the current draw.
+ */
+public class IndexSampler {
+
+    final private Random random;
+    private int[] keys = new int[0];
+    private int[] stamps = new int[0];
+    private int stamp = 0;
+
+    public IndexSampler() {
+        this(new Random());
+    }
+
+    public IndexSampler(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * @param bound indices are drawn in [0, bound)
+     * @param out array in which to write the indices
+     * @param n number of indices to draw, all distinct if n <= bound
+     */
+    public void sample(int bound, int[] out, int n) {
+        if (n > bound) {
+            for (int i = 0; i < n; i++)
+                out[i] = random.nextInt(bound);
+            return;
+        }
+
+        ensureCapacity(n);
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        int i = 0;
+        for (int j = bound - n; j < bound; j++) {
+            int t = random.nextInt(j + 1);
+            //j has never been drawn yet since all previous draws are < j
+            if (!add(t)) {
+                add(j);
+                t = j;
+            }
+            out[i++] = t;
+        }
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    //return false if already present
+    private boolean add(int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) & mask;
+        while (stamps[slot] == stamp) {
+            if (keys[slot] == key)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        stamps[slot] = stamp;
+        keys[slot] = key;
+        return true;
+    }
+
+    private void ensureCapacity(int n) {
+        if (keys.length >= 2 * n)
+            return;
+        int cap = 1;
+        while (cap < 2 * n)
+            cap <<= 1;
+        keys = new int[cap];
+        stamps = new int[cap];
+        stamp = 0;
+    }
+}
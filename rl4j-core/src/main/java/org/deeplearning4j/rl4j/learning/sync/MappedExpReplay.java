@@ -0,0 +1,361 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.BasicNDArrayCompressor;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Exp Replay stored on disk in fixed-size records inside memory-mapped segment files,
+ * so that it can be bigger than the heap (or the RAM: the page cache keeps the hot part)
+ * and be reopened after a restart.
+ *
+ * A record is the action, the reward, the terminal flag, the history and the next observation
+ * of a transition, as floats or as uint8 for pixels in [0, 255].
+ * A segment is at most 2GB (the limit of a single mapping).
+ *
+ * The header file keeps the layout and the number of transitions ever stored, from which the
+ * position in the ring is deduced. Opening a directory with a header of another layout fails.
+ * The count is only written once the record is, but the record overwritten by a write
+ * interrupted by a crash is not detected.
+ *
+ * The files are unmapped by close(), called at the end of the training by QLearningDiscrete,
+ * and otherwise only when the buffers are garbage collected.
+ */
+public class MappedExpReplay implements IExpReplay<Integer>, Closeable {
+
+    final private static int MAGIC = 0x524C344A;
+    final private static int VERSION = 1;
+    final private static int HEADER_SIZE = 64;
+    final private static int COUNT_OFFSET = 32;
+    //action, terminal, reward
+    final private static int RECORD_HEADER_SIZE = 16;
+    final private static String HEADER_FILE = "header.bin";
+    final private static String SEGMENT_FILE = "segment-%d.bin";
+
+    final private static BasicNDArrayCompressor compressor = BasicNDArrayCompressor.getInstance();
+
+    final private Logger log = LoggerFactory.getLogger("Mapped Exp Replay");
+
+    final private int maxSize;
+    final private int batchSize;
+    final private int historyLength;
+    final private int[] frameShape;
+    final private int frameSize;
+    final private boolean uint8;
+    final private int recordSize;
+    final private int recordsPerSegment;
+
+    final private MappedByteBuffer header;
+    final private MappedByteBuffer[] segments;
+    private long count;
+    private boolean closed = false;
+
+    final private IndexSampler sampler = new IndexSampler();
+
+    public MappedExpReplay(File directory, int maxSize, int batchSize, IHistoryProcessor.Configuration hpconf)
+            throws IOException {
+        this(directory, maxSize, batchSize, hpconf.getHistoryLength(),
+                new int[]{1, hpconf.getCroppingHeight(), hpconf.getCroppingWidth()}, true);
+    }
+
+    /**
+     * @param directory directory of the header and segment files, created if needed
+     * @param maxSize max number of transitions
+     * @param batchSize size of the batches returned by getBatch()
+     * @param historyLength number of frames in the observation of a transition
+     * @param frameShape shape of a single frame
+     * @param uint8 store the frames as bytes, for pixels in [0, 255]
+     * @throws IOException if the files cannot be mapped
+     */
+    public MappedExpReplay(File directory, int maxSize, int batchSize, int historyLength, int[] frameShape,
+                           boolean uint8) throws IOException {
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+        this.historyLength = historyLength;
+        this.frameShape = frameShape;
+        this.uint8 = uint8;
+
+        int size = 1;
+        for (int dim : frameShape)
+            size *= dim;
+        frameSize = size;
+
+        long dataSize = (long) (historyLength + 1) * frameSize * (uint8 ? 1 : 4);
+        if (RECORD_HEADER_SIZE + dataSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("transition too big for a segment");
+        recordSize = (int) (RECORD_HEADER_SIZE + dataSize);
+        recordsPerSegment = Math.min(maxSize, Integer.MAX_VALUE / recordSize);
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("cannot create " + directory);
+
+        File headerFile = new File(directory, HEADER_FILE);
+        boolean existing = headerFile.length() >= HEADER_SIZE;
+        header = map(headerFile, HEADER_SIZE);
+        if (existing) {
+            checkHeader(headerFile);
+            count = header.getLong(COUNT_OFFSET);
+        } else {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, maxSize);
+            header.putInt(12, recordSize);
+            header.putInt(16, historyLength);
+            header.putInt(20, frameSize);
+            header.putInt(24, uint8 ? 1 : 0);
+            header.putLong(COUNT_OFFSET, 0);
+            count = 0;
+        }
+
+        int nbSegments = (maxSize + recordsPerSegment - 1) / recordsPerSegment;
+        segments = new MappedByteBuffer[nbSegments];
+        for (int i = 0; i < nbSegments; i++) {
+            int records = Math.min(recordsPerSegment, maxSize - i * recordsPerSegment);
+            segments[i] = map(new File(directory, String.format(SEGMENT_FILE, i)), (long) records * recordSize);
+        }
+
+        log.info((existing ? "Reopened " : "Created ") + directory + ": " + Math.min(count, maxSize) +
+                " transitions, " + ((long) maxSize * recordSize >> 20) + " MB mapped");
+    }
+
+    private static MappedByteBuffer map(File file, long size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            //the mapping stays valid after the channel is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private void checkHeader(File headerFile) {
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+            throw new IllegalStateException(headerFile + " is not an exp replay header");
+        if (header.getInt(8) != maxSize || header.getInt(12) != recordSize || header.getInt(16) != historyLength
+                || header.getInt(20) != frameSize || header.getInt(24) != (uint8 ? 1 : 0))
+            throw new IllegalStateException(headerFile + " was created with another layout");
+    }
+
+    public ArrayList<Transition<Integer>> getBatch(int size) {
+        checkOpen();
+        ArrayList<Transition<Integer>> batch = new ArrayList<>(size);
+        int available = (int) Math.min(count, maxSize);
+        if (available == 0)
+            return batch;
+
+        int[] slots = new int[size];
+        sampler.sample(available, slots, size);
+        for (int slot : slots) {
+            batch.add(getTransition(slot));
+        }
+        return batch;
+    }
+
+    public ArrayList<Transition<Integer>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    public void getBatch(ExpReplayBatch batch) {
+        checkOpen();
+        int available = (int) Math.min(count, maxSize);
+        if (available == 0) {
+            batch.finish(0, false);
+            return;
+        }
+
+        int size = batch.getCapacity();
+        int[] slots = batch.getIndices();
+        sampler.sample(available, slots, size);
+
+        INDArray obs = batch.getObs();
+        INDArray nextObs = batch.getNextObs();
+        DataBuffer obsData = obs.data();
+        DataBuffer nextObsData = nextObs.data();
+        int rowLength = historyLength * frameSize;
+
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            int obsOffset = obs.offset() + i * rowLength;
+            int nextObsOffset = nextObs.offset() + i * rowLength;
+
+            //the next history is the history minus its oldest frame, followed by the next observation
+            for (int j = 0; j < historyLength; j++) {
+                readFrame(segment, offset, j, obsData, obsOffset + j * frameSize);
+                if (j > 0)
+                    readFrame(segment, offset, j, nextObsData, nextObsOffset + (j - 1) * frameSize);
+            }
+            readFrame(segment, offset, historyLength, nextObsData, nextObsOffset + (historyLength - 1) * frameSize);
+
+            batch.getActions()[i] = segment.getInt(offset);
+            batch.getTerminal()[i] = segment.getInt(offset + 4) != 0;
+            batch.getRewards()[i] = segment.getDouble(offset + 8);
+        }
+
+        batch.finish(size, false);
+    }
+
+    public void updatePriorities(ExpReplayBatch batch) {
+        //uniform sampling
+    }
+
+    public void store(Transition<Integer> transition) {
+        checkOpen();
+        INDArray[] history = transition.getObservation();
+        if (history.length != historyLength)
+            throw new IllegalArgumentException("history of length " + history.length + " instead of " + historyLength);
+
+        int slot = (int) (count % maxSize);
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+
+        segment.putInt(offset, transition.getAction());
+        segment.putInt(offset + 4, transition.isTerminal() ? 1 : 0);
+        segment.putDouble(offset + 8, transition.getReward());
+        for (int j = 0; j < historyLength; j++) {
+            writeFrame(history[j], segment, offset, j);
+        }
+        writeFrame(transition.getNextObservation(), segment, offset, historyLength);
+
+        count++;
+        header.putLong(COUNT_OFFSET, count);
+
+        log.debug("size: " + Math.min(count, maxSize));
+    }
+
+    /**
+     * Write the mapped files to the disk, they are otherwise written back whenever the OS decides to
+     */
+    public void flush() {
+        checkOpen();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    /**
+     * Flush and unmap the files, the exp replay can not be used anymore
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        flush();
+        closed = true;
+        for (MappedByteBuffer segment : segments) {
+            unmap(segment);
+        }
+        unmap(header);
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("the exp replay is closed");
+    }
+
+    //a mapping is otherwise released only when its buffer is garbage collected
+    private void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                //Java 9+
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Cannot unmap the exp replay, it is left to the garbage collector", e);
+        }
+    }
+
+    private Transition<Integer> getTransition(int slot) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+
+        INDArray[] history = new INDArray[historyLength];
+        for (int j = 0; j < historyLength; j++) {
+            history[j] = readFrame(segment, offset, j);
+        }
+
+        return new Transition<>(history, segment.getInt(offset), segment.getDouble(offset + 8),
+                segment.getInt(offset + 4) != 0, readFrame(segment, offset, historyLength));
+    }
+
+    private void writeFrame(INDArray frame, MappedByteBuffer segment, int offset, int index) {
+        if (frame.length() != frameSize)
+            throw new IllegalArgumentException("frame of length " + frame.length() + " instead of " + frameSize);
+
+        if (frame.isCompressed())
+            frame = compressor.decompress(frame);
+        if (frame.data().length() != frameSize)
+            frame = frame.dup();
+
+        float[] values = frame.data().asFloat();
+        int start = frameOffset(offset, index);
+        if (uint8) {
+            for (int i = 0; i < frameSize; i++) {
+                int pixel = Math.round(values[i]);
+                segment.put(start + i, (byte) Math.max(0, Math.min(255, pixel)));
+            }
+        } else {
+            for (int i = 0; i < frameSize; i++) {
+                segment.putFloat(start + 4 * i, values[i]);
+            }
+        }
+    }
+
+    private INDArray readFrame(MappedByteBuffer segment, int offset, int index) {
+        float[] values = new float[frameSize];
+        int start = frameOffset(offset, index);
+        for (int i = 0; i < frameSize; i++) {
+            values[i] = uint8 ? segment.get(start + i) & 0xFF : segment.getFloat(start + 4 * i);
+        }
+        return Nd4j.create(values, frameShape);
+    }
+
+    private void readFrame(MappedByteBuffer segment, int offset, int index, DataBuffer data, int dataOffset) {
+        int start = frameOffset(offset, index);
+        if (uint8) {
+            for (int i = 0; i < frameSize; i++) {
+                data.put(dataOffset + i, (float) (segment.get(start + i) & 0xFF));
+            }
+        } else {
+            for (int i = 0; i < frameSize; i++) {
+                data.put(dataOffset + i, segment.getFloat(start + 4 * i));
+            }
+        }
+    }
+
+    private int frameOffset(int offset, int index) {
+        return offset + RECORD_HEADER_SIZE + index * frameSize * (uint8 ? 1 : 4);
+    }
+
+    private MappedByteBuffer segment(int slot) {
+        return segments[slot / recordsPerSegment];
+    }
+
+    private int offset(int slot) {
+        return (slot % recordsPerSegment) * recordSize;
+    }
+
+}
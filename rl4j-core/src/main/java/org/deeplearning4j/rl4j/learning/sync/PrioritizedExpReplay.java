@@ -0,0 +1,131 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Proportional Prioritized Exp Replay
+ *
+ * https://arxiv.org/abs/1511.05952
+ *
+ * Transitions are sampled with probability p_i^alpha / sum_k p_k^alpha where
+ * p_i = |TD-error| + epsilon is fed back through updatePriorities. New transitions
+ * get the max priority seen so far so that they are sampled at least once.
+ *
+ * The bias introduced is corrected by importance-sampling weights
+ * (N * P(i))^-beta normalized by their max, beta being annealed
+ * from its initial value to 1 over betaNbStep batches sampled with their weights.
+ *
+ * Sampling and updating are O(log n) thanks to a flat-array sum-tree/min-tree.
+ */
+public class PrioritizedExpReplay<A> implements IExpReplay<A> {
+
+    final private Logger log = LoggerFactory.getLogger("Prioritized Exp Replay");
+
+    final private int maxSize;
+    final private int batchSize;
+    final private double alpha;
+    final private double initialBeta;
+    final private int betaNbStep;
+    final private double epsilon;
+
+    final private Transition<A>[] storage;
+    final private PriorityTree tree;
+    final private Random random = new Random();
+
+    private int position = 0;
+    private int size = 0;
+    private int nbBatch = 0;
+    private double maxPriority = 1.0;
+
+    public PrioritizedExpReplay(int maxSize, int batchSize, double alpha, double initialBeta, int betaNbStep) {
+        this(maxSize, batchSize, alpha, initialBeta, betaNbStep, 1e-6);
+    }
+
+    @SuppressWarnings("unchecked")
+    public PrioritizedExpReplay(int maxSize, int batchSize, double alpha, double initialBeta, int betaNbStep,
+                                double epsilon) {
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+        this.alpha = alpha;
+        this.initialBeta = initialBeta;
+        this.betaNbStep = betaNbStep;
+        this.epsilon = epsilon;
+        storage = (Transition<A>[]) new Transition[maxSize];
+        tree = new PriorityTree(maxSize);
+    }
+
+    /**
+     * Without importance-sampling weights: only the batches of getBatch(ExpReplayBatch) anneal beta
+     */
+    public ArrayList<Transition<A>> getBatch() {
+        ArrayList<Transition<A>> batch = new ArrayList<>(batchSize);
+        if (size == 0)
+            return batch;
+
+        double segment = tree.sum() / batchSize;
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(storage[sample(i, segment)].dup());
+        }
+        return batch;
+    }
+
+    public void getBatch(ExpReplayBatch batch) {
+        if (size == 0) {
+            batch.finish(0, true);
+            return;
+        }
+
+        double beta = getBeta();
+        nbBatch++;
+
+        int batchSize = batch.getCapacity();
+        int[] indices = batch.getIndices();
+        double[] weights = batch.getWeights();
+
+        double total = tree.sum();
+        double segment = total / batchSize;
+        double maxWeight = Math.pow(size * tree.min() / total, -beta);
+
+        for (int i = 0; i < batchSize; i++) {
+            int slot = sample(i, segment);
+            weights[i] = Math.pow(size * tree.get(slot) / total, -beta) / maxWeight;
+            batch.put(i, storage[slot], slot);
+        }
+
+        batch.finish(batchSize, true);
+    }
+
+    //stratified: one transition per segment of the total priority
+    private int sample(int i, double segment) {
+        int slot = tree.find((i + random.nextDouble()) * segment);
+        //rounding can lead to an empty leaf past the last transition
+        return Math.min(slot, size - 1);
+    }
+
+    public void store(Transition<A> transition) {
+        storage[position] = transition;
+        tree.set(position, maxPriority);
+        position = (position + 1) % maxSize;
+        size = Math.min(size + 1, maxSize);
+        log.debug("size: " + size);
+    }
+
+    public void updatePriorities(ExpReplayBatch batch) {
+        int[] indices = batch.getIndices();
+        double[] tdErrors = batch.getTdErrors();
+        for (int i = 0; i < batch.getSize(); i++) {
+            double priority = Math.pow(Math.abs(tdErrors[i]) + epsilon, alpha);
+            tree.set(indices[i], priority);
+            maxPriority = Math.max(maxPriority, priority);
+        }
+    }
+
+    public double getBeta() {
+        return Math.min(1.0, initialBeta + (1.0 - initialBeta) * nbBatch / betaNbStep);
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import java.util.Arrays;
+
+/**
+ * Sum-tree and min-tree over the priorities of a fixed number of slots,
+ * stored in flat arrays (node i has children 2i and 2i+1, leaves start at capacity).
+ *
+ * Both updating a priority and finding the slot of a given prefix sum are O(log n).
+ */
+class PriorityTree {
+
+    final private int capacity;
+    final private double[] sums;
+    final private double[] mins;
+
+    PriorityTree(int size) {
+        int cap = 1;
+        while (cap < size)
+            cap <<= 1;
+        capacity = cap;
+        sums = new double[2 * cap];
+        mins = new double[2 * cap];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+    }
+
+    void set(int slot, double priority) {
+        int node = slot + capacity;
+        sums[node] = priority;
+        mins[node] = priority;
+        node >>= 1;
+        while (node >= 1) {
+            sums[node] = sums[2 * node] + sums[2 * node + 1];
+            mins[node] = Math.min(mins[2 * node], mins[2 * node + 1]);
+            node >>= 1;
+        }
+    }
+
+    double get(int slot) {
+        return sums[slot + capacity];
+    }
+
+    double sum() {
+        return sums[1];
+    }
+
+    double min() {
+        return mins[1];
+    }
+
+    /**
+     * @param prefixSum a value in [0, sum())
+     * @return the slot i such that priority(0) + ... + priority(i-1) <= prefixSum < priority(0) + ... + priority(i)
+     */
+    int find(double prefixSum) {
+        int node = 1;
+        while (node < capacity) {
+            if (prefixSum < sums[2 * node]) {
+                node = 2 * node;
+            } else {
+                prefixSum -= sums[2 * node];
+                node = 2 * node + 1;
+            }
+        }
+        return node - capacity;
+    }
+}
@@ -8,6 +8,10 @@ import org.nd4j.linalg.factory.Nd4j;
  *
  * A transition is a SARS tuple
  * State, Action, Reward, (isTerminal), State
+ *
+ * The observation is an history of frames, oldest first (as given by
+ * IHistoryProcessor.getHistory()), and the next observation is only the
+ * newest frame of the next history.
  */
 public class Transition<A> {
 
@@ -59,6 +63,15 @@ public class Transition<A> {
         return arr;
     }
 
+    /**
+     * scale a batch of observations as concat does for a single one
+     * @param batch batch of observations, the first dimension being the batch
+     * @return the batch, scaled in a copy if the observations are more than 2d
+     */
+    public static INDArray scaleBatch(INDArray batch) {
+        return batch.rank() > 3 ? batch.mul(1/256f) : batch;
+    }
+
     /**
      * Duplicate this transition
      * @return this transition duplicated
@@ -83,15 +96,15 @@ public class Transition<A> {
     }
 
     /**
-     * append a pixel frame to an history (throwing the last frame)
+     * append a pixel frame to an history (throwing the oldest frame)
      * @param history the history on which to append
      * @param append the pixel frame to append
      * @return the appended history
      */
     public static INDArray[] append(INDArray[] history, INDArray append){
         INDArray[] appended = new INDArray[history.length];
-        appended[0] = append;
-        System.arraycopy(history, 0, appended, 1, history.length - 1);
+        System.arraycopy(history, 1, appended, 0, history.length - 1);
+        appended[history.length - 1] = append;
         return appended;
     }
 
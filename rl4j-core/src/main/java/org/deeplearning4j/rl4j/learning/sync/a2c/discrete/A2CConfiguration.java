@@ -0,0 +1,66 @@
+package org.deeplearning4j.rl4j.learning.sync.a2c.discrete;
+
+import org.deeplearning4j.rl4j.learning.ILearning;
+
+public class A2CConfiguration implements ILearning.LConfiguration {
+
+    private final int seed;
+    private final int maxEpochStep;
+    private final int maxStep;
+    private final int numEnvs;
+    private final int nstep;
+    private final double rewardFactor;
+    private final double gamma;
+
+    /**
+     * @param numEnvs number of copies of the mdp stepped in lockstep
+     * @param nstep number of steps of each environment in a rollout, a gradient is computed on numEnvs * nstep steps
+     */
+    public A2CConfiguration(int seed, int maxEpochStep, int maxStep, int numEnvs, int nstep,
+                            double rewardFactor, double gamma) {
+        if (numEnvs < 1)
+            throw new IllegalArgumentException("at least one environment is needed");
+        if (nstep < 1)
+            throw new IllegalArgumentException("nstep must be positive");
+        this.seed = seed;
+        this.maxEpochStep = maxEpochStep;
+        this.maxStep = maxStep;
+        this.numEnvs = numEnvs;
+        this.nstep = nstep;
+        this.rewardFactor = rewardFactor;
+        this.gamma = gamma;
+    }
+
+    @Override
+    public int getSeed() {
+        return seed;
+    }
+
+    @Override
+    public int getMaxEpochStep() {
+        return maxEpochStep;
+    }
+
+    @Override
+    public int getMaxStep() {
+        return maxStep;
+    }
+
+    public int getNumEnvs() {
+        return numEnvs;
+    }
+
+    public int getNstep() {
+        return nstep;
+    }
+
+    public double getRewardFactor() {
+        return rewardFactor;
+    }
+
+    @Override
+    public double getGamma() {
+        return gamma;
+    }
+
+}
@@ -0,0 +1,232 @@
+package org.deeplearning4j.rl4j.learning.sync.a2c.discrete;
+
+import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplayBatch;
+import org.deeplearning4j.rl4j.learning.sync.SyncLearning;
+import org.deeplearning4j.rl4j.learning.sync.Transition;
+import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.mdp.SerialVectorMDP;
+import org.deeplearning4j.rl4j.mdp.VectorStepReply;
+import org.deeplearning4j.rl4j.network.ac.IActorCritic;
+import org.deeplearning4j.rl4j.policy.ACPolicy;
+import org.deeplearning4j.rl4j.policy.Policy;
+import org.deeplearning4j.rl4j.space.DiscreteSpace;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.util.DataManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synchronous version of A3CDiscrete (A2C):
+ * numEnvs copies of the mdp are stepped in lockstep with one batched
+ * pass of the actor critic per step, and a single gradient is computed
+ * on the numEnvs * nstep steps of a rollout, with the same targets as A3C.
+ *
+ * The actions are sampled with a random generator seeded by the configuration,
+ * so that runs are reproducible.
+ *
+ * An epoch is an episode of the first environment, the others
+ * being reset as soon as they are done.
+ * A HistoryProcessor only follows a single environment and is not supported.
+ */
+public abstract class A2CDiscrete<O extends Encodable> extends SyncLearning<O, Integer, DiscreteSpace, IActorCritic> {
+
+    final private A2CConfiguration configuration;
+    final private MDP<O, Integer, DiscreteSpace> mdp;
+    final private IActorCritic iActorCritic;
+    final private Policy<O, Integer> policy;
+    final private DataManager dataManager;
+    final private Random rd;
+
+    private SerialVectorMDP<O, Integer, DiscreteSpace> vectorMdp = null;
+    private List<Integer> actions;
+    private INDArray obs;
+
+    //rollout buffers, the row of step t of the environment i being t * numEnvs + i
+    private INDArray inputs;
+    private INDArray values;
+    private INDArray policyLabels;
+    private int[] rolloutActions;
+    private double[] rolloutRewards;
+    private boolean[] rolloutDones;
+
+    //current and last finished episode of the first environment
+    private double episodeReward = 0;
+    private int episodeLength = 0;
+    private double finishedReward = 0;
+    private int finishedLength = 0;
+
+    A2CDiscrete(MDP<O, Integer, DiscreteSpace> mdp, IActorCritic iActorCritic, A2CConfiguration conf,
+                DataManager dataManager) {
+        super(conf);
+        this.mdp = mdp;
+        this.iActorCritic = iActorCritic;
+        this.configuration = conf;
+        this.dataManager = dataManager;
+        policy = new ACPolicy<>(iActorCritic);
+        rd = new Random(conf.getSeed());
+    }
+
+    @Override
+    public A2CConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public MDP<O, Integer, DiscreteSpace> getMdp() {
+        return mdp;
+    }
+
+    @Override
+    public Policy<O, Integer> getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public DataManager getDataManager() {
+        return dataManager;
+    }
+
+    public IActorCritic getNeuralNet() {
+        return iActorCritic;
+    }
+
+    @Override
+    protected void preEpoch() {
+        if (getHistoryProcessor() != null)
+            throw new IllegalStateException("A history processor cannot follow several environments");
+        if (vectorMdp == null)
+            init();
+    }
+
+    @Override
+    protected void postEpoch() {
+    }
+
+    @Override
+    protected DataManager.StatEntry trainEpoch() {
+        List<Double> scores = new ArrayList<>();
+        boolean done = false;
+        while (!done && episodeLength < getConfiguration().getMaxEpochStep()) {
+            done = rollout();
+            scores.add(iActorCritic.getLatestScore());
+        }
+
+        if (!done) {
+            //the episode goes on but the epoch is over
+            finishedReward = episodeReward;
+            finishedLength = episodeLength;
+            episodeReward = 0;
+            episodeLength = 0;
+        }
+        return new A2CStatEntry(getStepCounter(), getEpochCounter(), finishedReward, finishedLength, scores);
+    }
+
+    private void init() {
+        int numEnvs = getConfiguration().getNumEnvs();
+        int size = numEnvs * getConfiguration().getNstep();
+
+        vectorMdp = new SerialVectorMDP<>(mdp, numEnvs);
+        actions = new ArrayList<>(numEnvs);
+        for (int i = 0; i < numEnvs; i++)
+            actions.add(0);
+        obs = Transition.scaleBatch(vectorMdp.reset());
+
+        inputs = Nd4j.create(Learning.makeShape(size, mdp.getObservationSpace().getShape()));
+        values = Nd4j.create(size, 1);
+        policyLabels = Nd4j.create(size, mdp.getActionSpace().getSize());
+        rolloutActions = new int[size];
+        rolloutRewards = new double[size];
+        rolloutDones = new boolean[size];
+    }
+
+    /**
+     * Step all the environments nstep times then fit on the rollout
+     * @return true if the episode of the first environment ended during the rollout
+     */
+    private boolean rollout() {
+        int numEnvs = getConfiguration().getNumEnvs();
+        int nstep = getConfiguration().getNstep();
+        boolean done = false;
+
+        for (int t = 0; t < nstep; t++) {
+            INDArray[] output = iActorCritic.outputAll(obs);
+            int from = t * numEnvs;
+            ExpReplayBatch.rows(inputs, from, from + numEnvs).assign(obs);
+            ExpReplayBatch.rows(values, from, from + numEnvs).assign(output[0]);
+            ExpReplayBatch.rows(policyLabels, from, from + numEnvs).assign(output[1]);
+            for (int i = 0; i < numEnvs; i++) {
+                int action = sample(output[1], i);
+                actions.set(i, action);
+                rolloutActions[from + i] = action;
+            }
+
+            VectorStepReply stepReply = vectorMdp.step(actions);
+            for (int i = 0; i < numEnvs; i++) {
+                rolloutRewards[from + i] = stepReply.getRewards()[i] * getConfiguration().getRewardFactor();
+                rolloutDones[from + i] = stepReply.isDone(i);
+                incrementStep();
+            }
+
+            episodeReward += stepReply.getRewards()[0];
+            episodeLength++;
+            if (stepReply.isDone(0)) {
+                finishedReward = episodeReward;
+                finishedLength = episodeLength;
+                episodeReward = 0;
+                episodeLength = 0;
+                done = true;
+            }
+
+            obs = Transition.scaleBatch(stepReply.getObservations());
+        }
+
+        fit(iActorCritic.outputAll(obs)[0]);
+        return done;
+    }
+
+    /**
+     * n-step returns bootstrapped on the values of the observations following the rollout,
+     * and the targets of A3CThreadDiscrete
+     */
+    private void fit(INDArray bootstrap) {
+        int numEnvs = getConfiguration().getNumEnvs();
+        int size = inputs.size(0);
+        double gamma = getConfiguration().getGamma();
+
+        double[] returns = new double[size];
+        for (int i = 0; i < numEnvs; i++) {
+            double r = bootstrap.getDouble(i, 0);
+            for (int k = size - numEnvs + i; k >= 0; k -= numEnvs) {
+                r = rolloutRewards[k] + (rolloutDones[k] ? 0 : gamma * r);
+                returns[k] = r;
+            }
+        }
+
+        INDArray targets = Nd4j.create(returns, new int[]{size, 1});
+        for (int k = 0; k < size; k++) {
+            int action = rolloutActions[k];
+            double advantage = returns[k] - values.getDouble(k, 0);
+            policyLabels.putScalar(k, action, policyLabels.getDouble(k, action) + advantage);
+        }
+
+        iActorCritic.applyGradient(iActorCritic.gradient(inputs, new INDArray[]{targets, policyLabels}), size);
+    }
+
+    private int sample(INDArray probabilities, int row) {
+        float rVal = rd.nextFloat();
+        int last = probabilities.columns() - 1;
+        for (int j = 0; j < last; j++) {
+            float p = probabilities.getFloat(row, j);
+            if (rVal < p)
+                return j;
+            rVal -= p;
+        }
+        return last;
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.deeplearning4j.rl4j.learning.sync.a2c.discrete;
+
+import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.network.ac.ActorCriticFactorySeparate;
+import org.deeplearning4j.rl4j.network.ac.ActorCriticFactorySeparateStdDense;
+import org.deeplearning4j.rl4j.network.ac.IActorCritic;
+import org.deeplearning4j.rl4j.space.DiscreteSpace;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.util.DataManager;
+
+/**
+ * Training for A2C in the Discrete Domain
+ *
+ * Specialized constructors for the Dense case, with the same
+ * actor critic networks as A3CDiscreteDense
+ */
+public class A2CDiscreteDense<O extends Encodable> extends A2CDiscrete<O> {
+
+    public A2CDiscreteDense(MDP<O, Integer, DiscreteSpace> mdp, IActorCritic iActorCritic, A2CConfiguration conf,
+                            DataManager dataManager) {
+        super(mdp, iActorCritic, conf, dataManager);
+    }
+
+    public A2CDiscreteDense(MDP<O, Integer, DiscreteSpace> mdp, ActorCriticFactorySeparate factory,
+                            A2CConfiguration conf, DataManager dataManager) {
+        this(mdp, factory.buildActorCritic(mdp.getObservationSpace().getShape(), mdp.getActionSpace().getSize()), conf,
+                dataManager);
+    }
+
+    public A2CDiscreteDense(MDP<O, Integer, DiscreteSpace> mdp,
+                            ActorCriticFactorySeparateStdDense.Configuration netConf, A2CConfiguration conf,
+                            DataManager dataManager) {
+        this(mdp, new ActorCriticFactorySeparateStdDense(netConf), conf, dataManager);
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.deeplearning4j.rl4j.learning.sync.a2c.discrete;
+
+import org.deeplearning4j.rl4j.util.DataManager;
+
+import java.util.List;
+
+public class A2CStatEntry implements DataManager.StatEntry {
+    private final int stepCounter;
+    private final int epochCounter;
+    private final double reward;
+    private final int episodeLength;
+    private final List<Double> scores;
+
+    public A2CStatEntry(final int stepCounter, final int epochCounter, final double reward,
+                        final int episodeLength, final List<Double> scores) {
+        this.stepCounter = stepCounter;
+        this.epochCounter = epochCounter;
+        this.reward = reward;
+        this.episodeLength = episodeLength;
+        this.scores = scores;
+    }
+
+    @Override
+    public int getStepCounter() {
+        return stepCounter;
+    }
+
+    @Override
+    public int getEpochCounter() {
+        return epochCounter;
+    }
+
+    @Override
+    public double getReward() {
+        return reward;
+    }
+
+    public int getEpisodeLength() {
+        return episodeLength;
+    }
+
+    public List<Double> getScores() {
+        return scores;
+    }
+}
@@ -16,6 +16,14 @@ public class QLConfiguration implements ILearning.LConfiguration {
     private double minEpsilon;
     private int epsilonNbStep;
     private boolean doubleDQN;
+    private int prefetchDepth = 0;
+    private boolean prefetchTarget = false;
+    private boolean stackedForward = false;
+    private double targetUpdateTau = 1.0;
+    private int numEnvs = 1;
+    private int actorThreads = 0;
+    private double replayRatio = 1.0;
+    private int actorSyncFreq = 100;
 
     public QLConfiguration(final int seed, final int maxEpochStep, final int maxStep, final int expRepMaxSize,
                            final int batchSize, final int targetDqnUpdateFreq, final int updateStart,
@@ -72,6 +80,114 @@ public class QLConfiguration implements ILearning.LConfiguration {
         return targetDqnUpdateFreq;
     }
 
+    /**
+     * @return number of batches sampled in advance by a worker thread while fitting, 0 to sample in the training loop
+     */
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public QLConfiguration setPrefetchDepth(final int prefetchDepth) {
+        if (prefetchDepth < 0)
+            throw new IllegalArgumentException("prefetch depth must be positive");
+        this.prefetchDepth = prefetchDepth;
+        return this;
+    }
+
+    /**
+     * @return true if the worker thread also computes the target network output of a prefetched batch (double DQN only)
+     */
+    public boolean isPrefetchTarget() {
+        return prefetchTarget;
+    }
+
+    public QLConfiguration setPrefetchTarget(final boolean prefetchTarget) {
+        this.prefetchTarget = prefetchTarget;
+        return this;
+    }
+
+    /**
+     * @return true if the observations and next observations of a batch go through the current network in a single forward pass
+     */
+    public boolean isStackedForward() {
+        return stackedForward;
+    }
+
+    public QLConfiguration setStackedForward(final boolean stackedForward) {
+        this.stackedForward = stackedForward;
+        return this;
+    }
+
+    /**
+     * @return rate of the soft update of the target network every targetDqnUpdateFreq steps, 1 for a copy
+     */
+    public double getTargetUpdateTau() {
+        return targetUpdateTau;
+    }
+
+    public QLConfiguration setTargetUpdateTau(final double targetUpdateTau) {
+        if (targetUpdateTau <= 0 || targetUpdateTau > 1)
+            throw new IllegalArgumentException("tau must be in (0, 1]");
+        this.targetUpdateTau = targetUpdateTau;
+        return this;
+    }
+
+    /**
+     * @return number of copies of the mdp (made by newInstance) acted on together with one forward pass
+     */
+    public int getNumEnvs() {
+        return numEnvs;
+    }
+
+    public QLConfiguration setNumEnvs(final int numEnvs) {
+        if (numEnvs < 1)
+            throw new IllegalArgumentException("at least one environment is needed");
+        this.numEnvs = numEnvs;
+        return this;
+    }
+
+    /**
+     * @return number of actor threads feeding the exp replay while a learner thread trains, 0 to alternate acting and training
+     */
+    public int getActorThreads() {
+        return actorThreads;
+    }
+
+    public QLConfiguration setActorThreads(final int actorThreads) {
+        if (actorThreads < 0)
+            throw new IllegalArgumentException("actor threads must be positive");
+        this.actorThreads = actorThreads;
+        return this;
+    }
+
+    /**
+     * @return number of training steps per step of the actors (upper bound if the learner is slower than the actors)
+     */
+    public double getReplayRatio() {
+        return replayRatio;
+    }
+
+    public QLConfiguration setReplayRatio(final double replayRatio) {
+        if (replayRatio <= 0)
+            throw new IllegalArgumentException("replay ratio must be positive");
+        this.replayRatio = replayRatio;
+        return this;
+    }
+
+    /**
+     * @return number of steps of an actor between two refreshes of its network snapshot
+     */
+    public int getActorSyncFreq() {
+        return actorSyncFreq;
+    }
+
+    public QLConfiguration setActorSyncFreq(final int actorSyncFreq) {
+        if (actorSyncFreq < 1)
+            throw new IllegalArgumentException("actor sync frequency must be at least 1");
+        this.actorSyncFreq = actorSyncFreq;
+        return this;
+    }
+
     @Override
     public int getSeed() {
         return this.seed;
@@ -112,7 +228,15 @@ public class QLConfiguration implements ILearning.LConfiguration {
         if (Double.compare(that.getErrorClamp(), errorClamp) != 0) return false;
         if (Double.compare(that.getMinEpsilon(), minEpsilon) != 0) return false;
         if (epsilonNbStep != that.getEpsilonNbStep()) return false;
-        return doubleDQN == that.isDoubleDQN();
+        if (doubleDQN != that.isDoubleDQN()) return false;
+        if (prefetchDepth != that.getPrefetchDepth()) return false;
+        if (prefetchTarget != that.isPrefetchTarget()) return false;
+        if (stackedForward != that.isStackedForward()) return false;
+        if (Double.compare(that.getTargetUpdateTau(), targetUpdateTau) != 0) return false;
+        if (numEnvs != that.getNumEnvs()) return false;
+        if (actorThreads != that.getActorThreads()) return false;
+        if (Double.compare(that.getReplayRatio(), replayRatio) != 0) return false;
+        return actorSyncFreq == that.getActorSyncFreq();
 
     }
 
@@ -137,6 +261,16 @@ public class QLConfiguration implements ILearning.LConfiguration {
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + epsilonNbStep;
         result = 31 * result + (doubleDQN ? 1 : 0);
+        result = 31 * result + prefetchDepth;
+        result = 31 * result + (prefetchTarget ? 1 : 0);
+        result = 31 * result + (stackedForward ? 1 : 0);
+        temp = Double.doubleToLongBits(targetUpdateTau);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + numEnvs;
+        result = 31 * result + actorThreads;
+        temp = Double.doubleToLongBits(replayRatio);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + actorSyncFreq;
         return result;
     }
 }
\ No newline at end of file
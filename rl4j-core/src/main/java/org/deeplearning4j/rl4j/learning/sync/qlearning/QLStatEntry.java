@@ -4,7 +4,7 @@ import org.deeplearning4j.rl4j.util.DataManager;
 
 import java.util.List;
 
-class QLStatEntry implements DataManager.StatEntry {
+public class QLStatEntry implements DataManager.StatEntry {
     private int stepCounter;
     private int epochCounter;
     private double reward;
@@ -14,7 +14,7 @@ class QLStatEntry implements DataManager.StatEntry {
     private double startQ;
     private double meanQ;
 
-    QLStatEntry(final int stepCounter, final int epochCounter, final double reward,
+    public QLStatEntry(final int stepCounter, final int epochCounter, final double reward,
                 final int episodeLength, final List<Double> scores, final double epsilon,
                 final double startQ, final double meanQ) {
         this.stepCounter = stepCounter;
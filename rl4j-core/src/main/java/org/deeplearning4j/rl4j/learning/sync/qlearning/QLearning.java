@@ -28,8 +28,12 @@ public abstract class QLearning<O extends Encodable, A, AS extends ActionSpace<A
     final private IExpReplay<A> expReplay;
 
     public QLearning(QLConfiguration conf) {
+        this(conf, new ExpReplay<>(conf.getExpRepMaxSize(), conf.getBatchSize()));
+    }
+
+    public QLearning(QLConfiguration conf, IExpReplay<A> expReplay) {
         super(conf);
-        expReplay = new ExpReplay<>(conf.getExpRepMaxSize(), conf.getBatchSize());
+        this.expReplay = expReplay;
     }
 
     protected abstract EpsGreedy<O, A, AS> getEgPolicy();
@@ -51,12 +55,25 @@ public abstract class QLearning<O extends Encodable, A, AS extends ActionSpace<A
     }
 
     protected INDArray targetDqnOutput(INDArray input) {
-        return getTargetDQN().output(input);
+        IDQN target = getTargetDQN();
+        //the target is updated in place, possibly while prefetching
+        synchronized (target) {
+            return target.output(input);
+        }
     }
 
-    private void updateTargetNetwork() {
-        getLogger().info("Update target network");
-        setTargetDQN(getCurrentDQN().clone());
+    protected void updateTargetNetwork() {
+        IDQN target = getTargetDQN();
+        double tau = getConfiguration().getTargetUpdateTau();
+        synchronized (target) {
+            if (tau < 1) {
+                getLogger().debug("Soft update target network");
+                target.softUpdate(getCurrentDQN(), tau);
+            } else {
+                getLogger().info("Update target network");
+                target.copy(getCurrentDQN());
+            }
+        }
     }
 
     public IDQN getNeuralNet() {
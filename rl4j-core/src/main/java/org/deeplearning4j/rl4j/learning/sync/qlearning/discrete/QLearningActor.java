@@ -0,0 +1,185 @@
+package org.deeplearning4j.rl4j.learning.sync.qlearning.discrete;
+
+import org.deeplearning4j.gym.StepReply;
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
+import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.rl4j.learning.StepCountable;
+import org.deeplearning4j.rl4j.learning.sync.Transition;
+import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.network.dqn.IDQN;
+import org.deeplearning4j.rl4j.policy.DQNPolicy;
+import org.deeplearning4j.rl4j.policy.Decision;
+import org.deeplearning4j.rl4j.policy.EpsGreedy;
+import org.deeplearning4j.rl4j.space.DiscreteSpace;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Actor thread of QLearningDiscrete in actor/learner mode.
+ *
+ * It runs the epsilon-greedy policy of a local snapshot of the current network,
+ * refreshed every actorSyncFreq steps, on its own mdp and pushes the
+ * transitions to the exp replay while the learner trains.
+ *
+ * With a HistoryProcessor, every actor follows its mdp with its own processor,
+ * of the configuration of the learning, and steps as QLearningDiscrete.trainStep.
+ *
+ * Epsilon is annealed over the steps of all the actors.
+ */
+class QLearningActor<O extends Encodable> extends Thread implements StepCountable {
+
+    final private Logger log;
+    final private QLearningDiscrete<O> learning;
+    final private MDP<O, Integer, DiscreteSpace> mdp;
+    final private IDQN snapshot;
+    final private EpsGreedy<O, Integer, DiscreteSpace> egPolicy;
+    final private IHistoryProcessor hp;
+    private int localStep = 0;
+
+    QLearningActor(QLearningDiscrete<O> learning, MDP<O, Integer, DiscreteSpace> mdp, int threadNumber) {
+        super("QLearningActor-" + threadNumber);
+        setDaemon(true);
+        log = LoggerFactory.getLogger("Actor-" + threadNumber);
+        this.learning = learning;
+        this.mdp = mdp;
+        snapshot = learning.getCurrentDQN().clone();
+        egPolicy = new EpsGreedy<>(new DQNPolicy<>(snapshot), mdp, learning.getConfiguration().getUpdateStart(),
+                learning.getConfiguration().getEpsilonNbStep(), learning.getConfiguration().getMinEpsilon(), this);
+        IHistoryProcessor learningHp = learning.getHistoryProcessor();
+        hp = learningHp == null ? null : IHistoryProcessor.newInstance(learningHp.getConf());
+    }
+
+    @Override
+    public int getStepCounter() {
+        return learning.getActorSteps();
+    }
+
+    @Override
+    public void run() {
+        try {
+            log.info("Started!");
+            while (learning.isActing()) {
+                runEpisode();
+            }
+        } catch (Exception e) {
+            log.error("Thread crashed");
+            learning.actorCrashed(e);
+        }
+    }
+
+    private void runEpisode() {
+        Learning.InitMdp<O> initMdp = Learning.initMdp(mdp, hp);
+        O obs = initMdp.getLastObs();
+        double reward = initMdp.getReward();
+        int step = initMdp.getSteps();
+        double rewardFactor = learning.getConfiguration().getRewardFactor();
+        boolean isHistoryProcessor = hp != null;
+        int skipFrame = isHistoryProcessor ? hp.getConf().getSkipFrame() : 1;
+
+        INDArray[] history = null;
+        int lastAction = 0;
+        double accuReward = 0;
+        double startQ = Double.NaN;
+        double meanQ = 0;
+        int numQ = 0;
+
+        while (learning.isActing() && !mdp.isDone() && step < learning.getConfiguration().getMaxEpochStep()) {
+            if (localStep % learning.getConfiguration().getActorSyncFreq() == 0)
+                learning.syncSnapshot(snapshot);
+
+            INDArray input = Learning.getInput(mdp, obs);
+            if (isHistoryProcessor)
+                hp.record(input);
+
+            int action;
+            if (step % skipFrame != 0) {
+                action = lastAction;
+            } else {
+                if (history == null) {
+                    if (isHistoryProcessor) {
+                        hp.add(input);
+                        history = hp.getHistory();
+                    } else
+                        history = new INDArray[]{input};
+                }
+                INDArray hstack = isHistoryProcessor ?
+                        hp.getStackedHistory() : Transition.concat(Transition.dup(history));
+                if (hstack.shape().length > 2)
+                    hstack = hstack.reshape(Learning.makeShape(1, hstack.shape()));
+
+                Decision<Integer> decision = egPolicy.decide(hstack);
+                INDArray qs = decision.getOutput()[0];
+                double maxQ = qs.getDouble(Learning.getMaxAction(qs));
+                if (Double.isNaN(startQ))
+                    startQ = maxQ;
+                meanQ += maxQ;
+                numQ++;
+                action = decision.getAction();
+            }
+            lastAction = action;
+
+            StepReply<O> stepReply = mdp.step(action);
+            accuReward += stepReply.getReward() * rewardFactor;
+
+            if (step % skipFrame == 0 || stepReply.isDone()) {
+                INDArray ninput = Learning.getInput(mdp, stepReply.getObservation());
+                if (isHistoryProcessor)
+                    hp.add(ninput);
+                INDArray[] nhistory = isHistoryProcessor ? hp.getHistory() : new INDArray[]{ninput};
+
+                learning.storeTransition(new Transition<>(history, action, accuReward, stepReply.isDone(),
+                        nhistory[nhistory.length - 1]));
+                history = nhistory;
+                accuReward = 0;
+            }
+
+            reward += stepReply.getReward();
+            obs = stepReply.getObservation();
+            step++;
+            localStep++;
+            learning.incrementActorSteps();
+        }
+
+        if (learning.isActing())
+            learning.endEpisode(new Episode(reward, step, egPolicy.getEpsilon(), startQ, meanQ / (numQ + 0.001)));
+    }
+
+    static class Episode {
+        final private double reward;
+        final private int length;
+        final private double epsilon;
+        final private double startQ;
+        final private double meanQ;
+
+        Episode(double reward, int length, double epsilon, double startQ, double meanQ) {
+            this.reward = reward;
+            this.length = length;
+            this.epsilon = epsilon;
+            this.startQ = startQ;
+            this.meanQ = meanQ;
+        }
+
+        public double getReward() {
+            return reward;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public double getEpsilon() {
+            return epsilon;
+        }
+
+        public double getStartQ() {
+            return startQ;
+        }
+
+        public double getMeanQ() {
+            return meanQ;
+        }
+    }
+
+}
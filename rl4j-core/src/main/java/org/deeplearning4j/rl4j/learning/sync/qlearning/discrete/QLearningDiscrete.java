@@ -4,24 +4,44 @@ import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.gym.StepReply;
 
 import org.deeplearning4j.rl4j.learning.sync.qlearning.QLConfiguration;
+import org.deeplearning4j.rl4j.learning.sync.qlearning.QLStatEntry;
 import org.deeplearning4j.rl4j.learning.sync.qlearning.QLStepReturn;
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
 import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.rl4j.learning.sync.ConcurrentExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplayBatch;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplayPrefetcher;
+import org.deeplearning4j.rl4j.learning.sync.IExpReplay;
 import org.deeplearning4j.rl4j.learning.sync.Transition;
 import org.deeplearning4j.rl4j.learning.sync.qlearning.QLearning;
 import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.mdp.SerialVectorMDP;
+import org.deeplearning4j.rl4j.mdp.VectorMDP;
+import org.deeplearning4j.rl4j.mdp.VectorStepReply;
 import org.deeplearning4j.rl4j.network.dqn.IDQN;
+import org.deeplearning4j.rl4j.policy.Decision;
 import org.deeplearning4j.rl4j.policy.DQNPolicy;
 import org.deeplearning4j.rl4j.policy.EpsGreedy;
 
 import org.deeplearning4j.rl4j.util.Constants;
 import org.deeplearning4j.rl4j.util.DataManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.transforms.IsMax;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.function.Function;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) 7/18/16.
@@ -45,15 +65,37 @@ abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O, Integ
 
     private EpsGreedy<O, Integer, DiscreteSpace> egPolicy;
 
-    private IDQN targetDQN;
+    //read by the prefetch thread
+    private volatile IDQN targetDQN;
+    private ExpReplayBatch expReplayBatch = null;
+    private ExpReplayPrefetcher prefetcher = null;
     private int lastAction;
     private INDArray history[] = null;
     private double accuReward = 0;
     private int lastMonitor = -Constants.MONITOR_FREQ;
+    private VectorMDP<O, Integer, DiscreteSpace> vectorMdp = null;
+    private INDArray vectorObs = null;
+    private List<Integer> vectorActions = null;
+    //state of every environment of the vector epochs
+    private INDArray[][] vectorHistories = null;
+    private double[] vectorAccuRewards = null;
+    private IHistoryProcessor[] vectorHps = null;
+    private INDArray vectorInput = null;
+    private int vectorStep = 0;
+    final private AtomicInteger actorSteps = new AtomicInteger();
+    final private ConcurrentLinkedQueue<QLearningActor.Episode> episodes = new ConcurrentLinkedQueue<>();
+    private volatile boolean acting = false;
+    private volatile Exception actorError = null;
 
 
     QLearningDiscrete(MDP<O, Integer, DiscreteSpace> mdp, IDQN dqn, QLConfiguration conf, DataManager dataManager, int epsilonNbStep) {
-        super(conf);
+        this(mdp, dqn, conf, dataManager, epsilonNbStep,
+                new ExpReplay<>(conf.getExpRepMaxSize(), conf.getBatchSize()));
+    }
+
+    QLearningDiscrete(MDP<O, Integer, DiscreteSpace> mdp, IDQN dqn, QLConfiguration conf, DataManager dataManager,
+                      int epsilonNbStep, IExpReplay<Integer> expReplay) {
+        super(conf, expReplay);
         this.configuration = conf;
         this.mdp = mdp;
         this.dataManager = dataManager;
@@ -63,6 +105,29 @@ abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O, Integ
         egPolicy = new EpsGreedy<>(policy, mdp, conf.getUpdateStart(), epsilonNbStep, conf.getMinEpsilon(), this);
     }
 
+    @Override
+    public void train() {
+        try {
+            if (getConfiguration().getActorThreads() > 0)
+                trainActorLearner();
+            else
+                super.train();
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.shutdown();
+                prefetcher = null;
+            }
+            //by example a MappedExpReplay, to unmap its files
+            if (getExpReplay() instanceof Closeable) {
+                try {
+                    ((Closeable) getExpReplay()).close();
+                } catch (IOException e) {
+                    getLogger().error("Cannot close the exp replay", e);
+                }
+            }
+        }
+    }
+
     public void postEpoch() {
         if (getHistoryProcessor() != null) {
             getHistoryProcessor().stopMonitor();
@@ -114,18 +179,19 @@ abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O, Integ
                 } else
                     history = new INDArray[]{input};
             }
-            //concat the history into a single INDArray input
-            INDArray hstack = Transition.concat(Transition.dup(history));
+            //concat the history into a single INDArray input, already stacked by the history processor
+            INDArray hstack = isHistoryProcessor ?
+                    getHistoryProcessor().getStackedHistory() : Transition.concat(Transition.dup(history));
 
             //if input is not 2d, you have to append that the batch is 1 length high
             if (hstack.shape().length > 2)
                 hstack = hstack.reshape(Learning.makeShape(1, hstack.shape()));
 
-            INDArray qs = getCurrentDQN().output(hstack);
-            int maxAction = Learning.getMaxAction(qs);
-
-            maxQ = qs.getDouble(maxAction);
-            action = getEgPolicy().nextAction(hstack);
+            //a single forward pass for the action and maxQ
+            Decision<Integer> decision = getEgPolicy().decide(hstack);
+            INDArray qs = decision.getOutput()[0];
+            maxQ = qs.getDouble(Learning.getMaxAction(qs));
+            action = decision.getAction();
         }
 
         lastAction = action;
@@ -144,14 +210,14 @@ abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O, Integ
             INDArray[] nhistory = isHistoryProcessor ? getHistoryProcessor().getHistory() : new INDArray[]{ninput};
 
             Transition<Integer> trans = new Transition<>(history, action, accuReward, stepReply.isDone(),
-                    nhistory[0]);
-            getExpReplay().store(trans);
-
-            if (getStepCounter() > updateStart) {
-                Pair<INDArray, INDArray> targets = setTarget(getExpReplay().getBatch());
-                getCurrentDQN().fit(targets.getFirst(), targets.getSecond());
+                    nhistory[nhistory.length - 1]);
+            synchronized (getExpReplay()) {
+                getExpReplay().store(trans);
             }
 
+            if (getStepCounter() > updateStart)
+                fitBatch();
+
             history = nhistory;
             accuReward = 0;
         }
@@ -159,57 +225,389 @@ abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O, Integ
         return new QLStepReturn<>(maxQ, getCurrentDQN().getLatestScore(), stepReply);
     }
 
-    private Pair<INDArray, INDArray> setTarget(ArrayList<Transition<Integer>> transitions) {
-        if (transitions.size() == 0)
-            throw new IllegalArgumentException("too few transitions");
+    /**
+     * Epoch of numEnvs environments acted on together: the actions of all of them
+     * are chosen with a single forward pass. The epoch ends with the episode of the
+     * first environment, the others carry on over epochs (they are reset when done).
+     * Every environment step counts as a step, followed by a step of training as usual.
+     *
+     * With a HistoryProcessor, the first environment is followed by the one of the learning
+     * (and monitored by it), every other one by its own instance. As in trainStep, the
+     * actions are chosen every skipFrame steps, all environments together. The environments
+     * are reset by the vector mdp without the no-op steps of initMdp: the history of a new
+     * episode is filled with copies of its first frame.
+     * @return the stats of the epoch
+     */
+    private DataManager.StatEntry trainVectorEpoch() {
+        int numEnvs = getConfiguration().getNumEnvs();
+        boolean isHistoryProcessor = getHistoryProcessor() != null;
+        if (vectorMdp == null) {
+            vectorMdp = new SerialVectorMDP<>(getMdp(), numEnvs);
+            vectorObs = vectorMdp.reset();
+            vectorActions = new ArrayList<>(numEnvs);
+            for (int i = 0; i < numEnvs; i++)
+                vectorActions.add(0);
+            vectorHistories = new INDArray[numEnvs][];
+            vectorAccuRewards = new double[numEnvs];
+            if (isHistoryProcessor) {
+                vectorHps = new IHistoryProcessor[numEnvs];
+                vectorHps[0] = getHistoryProcessor();
+                for (int i = 1; i < numEnvs; i++)
+                    vectorHps[i] = IHistoryProcessor.newInstance(getHistoryProcessor().getConf());
+                vectorInput = Nd4j.create(Learning.makeShape(numEnvs, getHistoryProcessor().getConf().getShape()));
+            }
+        }
 
-        int size = transitions.size();
+        int skipFrame = isHistoryProcessor ? getHistoryProcessor().getConf().getSkipFrame() : 1;
+        int historyLength = isHistoryProcessor ? getHistoryProcessor().getConf().getHistoryLength() : 1;
+        int updateStart = getConfiguration().getUpdateStart() + ((getConfiguration().getBatchSize() + historyLength) * skipFrame);
+        int targetFreq = getConfiguration().getTargetDqnUpdateFreq();
+
+        double reward = 0;
+        int step = 0;
+        boolean done = false;
+        Double startQ = Double.NaN;
+        double meanQ = 0;
+        int numQ = 0;
+        List<Double> scores = new ArrayList<>();
+        boolean[] stored = new boolean[numEnvs];
+
+        while (step < getConfiguration().getMaxEpochStep() && !done) {
+
+            //a step multiple of targetDqnUpdateFreq is in the next numEnvs steps
+            if (Math.floorDiv(getStepCounter() + numEnvs - 1, targetFreq) > Math.floorDiv(getStepCounter() - 1, targetFreq))
+                updateTargetNetwork();
+
+            for (int i = 0; i < numEnvs; i++) {
+                INDArray input = row(vectorObs, i);
+                if (isHistoryProcessor)
+                    vectorHps[i].record(input);
+            }
 
-        int[] shape = getHistoryProcessor() == null ?
-                getMdp().getObservationSpace().getShape() : getHistoryProcessor().getConf().getShape();
-        int[] nshape = makeShape(size, shape);
-        INDArray obs = Nd4j.create(nshape);
-        INDArray nextObs = Nd4j.create(nshape);
-        int[] actions = new int[size];
-        boolean[] areTerminal = new boolean[size];
-
-        for (int i = 0; i < size; i++) {
-            Transition<Integer> trans = transitions.get(i);
-            areTerminal[i] = trans.isTerminal();
-            actions[i] = trans.getAction();
-            obs.putRow(i, Transition.concat(trans.getObservation()));
-            nextObs.putRow(i, Transition.concat(Transition.append(trans.getObservation(),
-                    trans.getNextObservation())));
+            //otherwise every environment repeats its last action
+            boolean decide = vectorStep % skipFrame == 0;
+            if (decide) {
+                for (int i = 0; i < numEnvs; i++) {
+                    INDArray input = row(vectorObs, i);
+                    if (isHistoryProcessor) {
+                        if (vectorHistories[i] == null) {
+                            //no no-op steps as in initMdp: the history starts full of the first frame
+                            for (int j = 0; j < historyLength; j++)
+                                vectorHps[i].add(input);
+                            vectorHistories[i] = vectorHps[i].getHistory();
+                        }
+                        vectorInput.slice(i).assign(vectorHps[i].getStackedHistory());
+                    } else
+                        vectorHistories[i] = new INDArray[]{input};
+                }
+
+                INDArray[] output = getCurrentDQN().outputAll(
+                        isHistoryProcessor ? vectorInput : Transition.scaleBatch(vectorObs));
+                getEgPolicy().selectActions(output, vectorActions);
+
+                INDArray qs = output[0].getRow(0);
+                double maxQ = qs.getDouble(Learning.getMaxAction(qs));
+                if (startQ.isNaN())
+                    startQ = maxQ;
+                numQ++;
+                meanQ += maxQ;
+            }
+
+            VectorStepReply stepReply = vectorMdp.step(vectorActions);
+            for (int i = 0; i < numEnvs; i++) {
+                //an environment just reset has no history until its next choice of action
+                stored[i] = (decide || stepReply.isDone(i)) && vectorHistories[i] != null;
+                if (vectorHistories[i] != null)
+                    vectorAccuRewards[i] += stepReply.getRewards()[i] * configuration.getRewardFactor();
+                if (stored[i]) {
+                    INDArray ninput = stepReply.getLastObservation(i);
+                    if (isHistoryProcessor)
+                        vectorHps[i].add(ninput);
+                    INDArray[] nhistory = isHistoryProcessor ? vectorHps[i].getHistory() : new INDArray[]{ninput};
+
+                    Transition<Integer> trans = new Transition<>(vectorHistories[i], vectorActions.get(i),
+                            vectorAccuRewards[i], stepReply.isDone(i), nhistory[nhistory.length - 1]);
+                    synchronized (getExpReplay()) {
+                        getExpReplay().store(trans);
+                    }
+                    vectorHistories[i] = nhistory;
+                    vectorAccuRewards[i] = 0;
+                }
+                //the next observation is the first of a new episode
+                if (stepReply.isDone(i)) {
+                    vectorHistories[i] = null;
+                    vectorAccuRewards[i] = 0;
+                }
+            }
+            reward += stepReply.getRewards()[0];
+            done = stepReply.isDone(0);
+            vectorObs = stepReply.getObservations();
+
+            for (int i = 0; i < numEnvs; i++) {
+                if (stored[i] && getStepCounter() > updateStart) {
+                    fitBatch();
+                    scores.add(getCurrentDQN().getLatestScore());
+                }
+                incrementStep();
+            }
+            vectorStep++;
+            step++;
         }
 
-        INDArray dqnOutputAr = dqnOutput(obs);
+        meanQ /= (numQ + 0.001); //avoid div zero
+
+        return new QLStatEntry(getStepCounter(), getEpochCounter(), reward, step, scores,
+                getEgPolicy().getEpsilon(), startQ, meanQ);
+    }
 
-        INDArray dqnOutputNext = dqnOutput(nextObs);
-        INDArray qFunc;
-        Function<Integer, Double> action;
+    private static INDArray row(INDArray batch, int i) {
+        return batch.rank() > 2 ? batch.slice(i) : batch.getRow(i);
+    }
 
-        if (getConfiguration().isDoubleDQN()) {
-            qFunc = targetDqnOutput(nextObs);
-            final INDArray getMaxAction = Nd4j.argMax(dqnOutputNext, 1);
-            action = (i) -> qFunc.getDouble(i, getMaxAction.getInt(i));
+    /**
+     * Actor/learner mode: actorThreads threads act on their own copy of the mdp and
+     * push to the exp replay while this thread trains, at most replayRatio training
+     * steps per step of the actors (it waits for them otherwise).
+     *
+     * The step counter follows the steps of the actors and an epoch is an episode of any actor.
+     * The exp replay is accessed under its lock unless it is a ConcurrentExpReplay.
+     * Every actor has its own instance of the HistoryProcessor, if any.
+     */
+    private void trainActorLearner() {
+        int numActors = getConfiguration().getActorThreads();
+        getLogger().info("training starting with " + numActors + " actors.");
+        getDataManager().writeInfo(this);
+
+        acting = true;
+        List<QLearningActor<O>> actors = new ArrayList<>(numActors);
+        for (int i = 0; i < numActors; i++) {
+            actors.add(new QLearningActor<>(this, i == 0 ? getMdp() : getMdp().newInstance(), i));
+        }
+        for (QLearningActor<O> actor : actors) {
+            actor.start();
+        }
+
+        //as in trainStep, enough transitions for a batch once the frames are skipped
+        boolean isHistoryProcessor = getHistoryProcessor() != null;
+        int skipFrame = isHistoryProcessor ? getHistoryProcessor().getConf().getSkipFrame() : 1;
+        int historyLength = isHistoryProcessor ? getHistoryProcessor().getConf().getHistoryLength() : 1;
+        int updateStart = getConfiguration().getUpdateStart() + ((getConfiguration().getBatchSize() + historyLength) * skipFrame);
+        long nbFit = 0;
+        int lastSave = -Constants.MODEL_SAVE_FREQ;
+        List<Double> scores = new ArrayList<>();
+
+        try {
+            while (getStepCounter() < getConfiguration().getMaxStep()) {
+                if (actorError != null)
+                    throw new IllegalStateException("Actor crashed", actorError);
+
+                int steps = actorSteps.get();
+                while (getStepCounter() < steps) {
+                    if (getStepCounter() % getConfiguration().getTargetDqnUpdateFreq() == 0)
+                        updateTargetNetwork();
+                    incrementStep();
+                }
+
+                QLearningActor.Episode episode;
+                while ((episode = episodes.poll()) != null) {
+                    getDataManager().appendStat(new QLStatEntry(getStepCounter(), getEpochCounter(),
+                            episode.getReward(), episode.getLength(), scores, episode.getEpsilon(),
+                            episode.getStartQ(), episode.getMeanQ()));
+                    getLogger().info("Epoch: " + getEpochCounter() + ", reward: " + episode.getReward());
+                    scores = new ArrayList<>();
+                    incrementEpoch();
+                    if (getStepCounter() - lastSave >= Constants.MODEL_SAVE_FREQ) {
+                        getDataManager().save(this);
+                        lastSave = getStepCounter();
+                    }
+                    getDataManager().writeInfo(this);
+                }
+
+                if (steps > updateStart && nbFit < getConfiguration().getReplayRatio() * (steps - updateStart)) {
+                    synchronized (getCurrentDQN()) {
+                        fitBatch();
+                    }
+                    scores.add(getCurrentDQN().getLatestScore());
+                    nbFit++;
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+        } finally {
+            acting = false;
+            for (QLearningActor<O> actor : actors) {
+                try {
+                    actor.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    boolean isActing() {
+        return acting;
+    }
+
+    int getActorSteps() {
+        return actorSteps.get();
+    }
 
+    void incrementActorSteps() {
+        actorSteps.incrementAndGet();
+    }
+
+    void actorCrashed(Exception e) {
+        actorError = e;
+    }
+
+    void endEpisode(QLearningActor.Episode episode) {
+        episodes.add(episode);
+    }
+
+    void storeTransition(Transition<Integer> transition) {
+        if (getExpReplay() instanceof ConcurrentExpReplay) {
+            getExpReplay().store(transition);
         } else {
-            qFunc = Nd4j.max(dqnOutputNext, 1);
-            action = qFunc::getDouble;
+            synchronized (getExpReplay()) {
+                getExpReplay().store(transition);
+            }
         }
+    }
 
+    /**
+     * @param snapshot network of an actor to update to the current parameters
+     */
+    void syncSnapshot(IDQN snapshot) {
+        synchronized (getCurrentDQN()) {
+            snapshot.copy(getCurrentDQN());
+        }
+    }
 
-        for (int i = 0; i < size; i++) {
-            double yTar = transitions.get(i).getReward();
-            if (!areTerminal[i]) {
-                yTar += getConfiguration().getGamma() * action.apply(i);
+    @Override
+    protected DataManager.StatEntry trainEpoch() {
+        if (getConfiguration().getNumEnvs() > 1)
+            return trainVectorEpoch();
+        return super.trainEpoch();
+    }
+
+    private void fitBatch() {
+        ExpReplayBatch batch = nextBatch();
+        Pair<INDArray, INDArray> targets = setTarget(batch);
+        if (targets != null)
+            getCurrentDQN().fit(targets.getFirst(), targets.getSecond());
+        if (prefetcher != null)
+            prefetcher.release(batch);
+    }
+
+    /**
+     * Sample the next batch, or take it from the prefetch thread if prefetchDepth > 0.
+     * The prefetch thread is started lazily once the exp replay is filled enough.
+     * As for storeTransition, the exp replay is sampled under its lock unless it is a ConcurrentExpReplay.
+     * @return the next batch
+     */
+    private ExpReplayBatch nextBatch() {
+        if (getConfiguration().getPrefetchDepth() == 0) {
+            if (getExpReplay() instanceof ConcurrentExpReplay) {
+                getExpReplay().getBatch(getExpReplayBatch());
+            } else {
+                synchronized (getExpReplay()) {
+                    getExpReplay().getBatch(getExpReplayBatch());
+                }
             }
-            double previousV = dqnOutputAr.getDouble(i, actions[i]);
-            double lowB = previousV - getConfiguration().getErrorClamp();
-            double highB = previousV + getConfiguration().getErrorClamp();
-            double clamped = Math.min(highB, Math.max(yTar, lowB));
+            return getExpReplayBatch();
+        }
+
+        if (prefetcher == null) {
+            Consumer<ExpReplayBatch> assembler = null;
+            if (getConfiguration().isDoubleDQN() && getConfiguration().isPrefetchTarget())
+                assembler = (batch) -> batch.setTargetNextOutput(targetDqnOutput(batch.getNextObs()));
+            prefetcher = new ExpReplayPrefetcher(getExpReplay(), getConfiguration().getPrefetchDepth(),
+                    getConfiguration().getBatchSize(), getBatchShape(), assembler);
+            prefetcher.start();
+        }
+        return prefetcher.take();
+    }
+
+    /**
+     * @return the buffers in which the exp replay writes the batches, allocated once
+     */
+    private ExpReplayBatch getExpReplayBatch() {
+        if (expReplayBatch == null) {
+            expReplayBatch = new ExpReplayBatch(getConfiguration().getBatchSize(), getBatchShape());
+        }
+        return expReplayBatch;
+    }
+
+    private int[] getBatchShape() {
+        return getHistoryProcessor() == null ?
+                getMdp().getObservationSpace().getShape() : getHistoryProcessor().getConf().getShape();
+    }
+
+    /**
+     * Bellman targets of a batch as bulk operations over the batch:
+     * only the outputs of the actions taken move, toward
+     * r + gamma * (1 - terminal) * Q(s', a') with the error clamped
+     * (and scaled by the importance-sampling weight if any).
+     * Only the first batch.getSize() rows are used, the batch may not be full.
+     * @return the inputs and the targets, null if the batch is empty
+     */
+    Pair<INDArray, INDArray> setTarget(ExpReplayBatch batch) {
+        int size = batch.getSize();
+        if (size == 0)
+            return null;
+
+        boolean full = size == batch.getCapacity();
+        INDArray obs = full ? batch.getObs() : ExpReplayBatch.rows(batch.getObs(), 0, size);
+        INDArray nextObs = full ? batch.getNextObs() : ExpReplayBatch.rows(batch.getNextObs(), 0, size);
+
+        INDArray dqnOutputAr;
+        INDArray dqnOutputNext;
+        if (getConfiguration().isStackedForward() && full) {
+            //obs and nextObs are the halves of batch.getStacked(), a partial batch goes in two passes instead
+            INDArray output = dqnOutput(batch.getStacked());
+            dqnOutputAr = ExpReplayBatch.rows(output, 0, size);
+            dqnOutputNext = ExpReplayBatch.rows(output, batch.getCapacity(), batch.getCapacity() + size);
+        } else {
+            dqnOutputAr = dqnOutput(obs);
+            dqnOutputNext = dqnOutput(nextObs);
+        }
+        int nbActions = dqnOutputAr.columns();
+
+        INDArray nextV;
+        if (getConfiguration().isDoubleDQN()) {
+            INDArray qFunc = batch.getTargetNextOutput() == null ? targetDqnOutput(nextObs) :
+                    full ? batch.getTargetNextOutput() : ExpReplayBatch.rows(batch.getTargetNextOutput(), 0, size);
+            //one-hot of the greedy actions of the current network, evaluated by the target network
+            INDArray maxActions = Nd4j.getExecutioner().execAndReturn(new IsMax(dqnOutputNext, 1));
+            nextV = qFunc.mul(maxActions).sum(1);
+        } else {
+            nextV = Nd4j.max(dqnOutputNext, 1);
+        }
+        nextV = nextV.reshape(size, 1);
+
+        batch.prepareTargets(nbActions);
+        INDArray actionMask = batch.getActionMask();
+        INDArray yTar = nextV.muli(batch.getNotTerminalColumn())
+                .muli(getConfiguration().getGamma())
+                .addi(batch.getRewardColumn());
+
+        INDArray previousV = dqnOutputAr.mul(actionMask).sum(1).reshape(size, 1);
+        INDArray delta = yTar.subi(previousV);
+        batch.setTdErrors(delta);
+
+        double clamp = getConfiguration().getErrorClamp();
+        Transforms.min(Transforms.max(delta, -clamp, false), clamp, false);
+
+        //with MSE, scaling the error scales the gradient: importance-sampling weight
+        if (batch.isWeighted())
+            delta.muli(batch.getWeightColumn());
+
+        //the mask is rewritten by the next prepareTargets
+        dqnOutputAr.addi(actionMask.muliColumnVector(delta));
 
-            dqnOutputAr.putScalar(i, actions[i], clamped);
+        synchronized (getExpReplay()) {
+            getExpReplay().updatePriorities(batch);
         }
 
         return new Pair<>(obs, dqnOutputAr);
@@ -4,6 +4,7 @@ import org.deeplearning4j.rl4j.learning.sync.qlearning.QLConfiguration;
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
 import org.deeplearning4j.rl4j.learning.HistoryProcessor;
+import org.deeplearning4j.rl4j.learning.sync.IExpReplay;
 import org.deeplearning4j.rl4j.mdp.MDP;
 import org.deeplearning4j.rl4j.network.dqn.DQNFactory;
 import org.deeplearning4j.rl4j.network.dqn.DQNFactoryStdConv;
@@ -24,6 +25,16 @@ public class QLearningDiscreteConv<O extends Encodable> extends QLearningDiscret
         setHistoryProcessor(hpconf);
     }
 
+    /**
+     * @param expReplay the exp replay to use, by example a FrameExpReplay to store each frame once off-heap,
+     *                  closed at the end of the training if it is Closeable
+     */
+    public QLearningDiscreteConv(MDP<O, Integer, DiscreteSpace> mdp, IDQN dqn, HistoryProcessor.Configuration hpconf,
+                                 QLConfiguration conf, DataManager dataManager, IExpReplay<Integer> expReplay) {
+        super(mdp, dqn, conf, dataManager, conf.getEpsilonNbStep()*hpconf.getSkipFrame(), expReplay);
+        setHistoryProcessor(hpconf);
+    }
+
     public QLearningDiscreteConv(MDP<O, Integer, DiscreteSpace> mdp, DQNFactory factory,
                                  HistoryProcessor.Configuration hpconf, QLConfiguration conf, DataManager dataManager) {
         this(mdp, factory.buildDQN(hpconf.getShape(), mdp.getActionSpace().getSize()), hpconf, conf, dataManager);
@@ -1,6 +1,7 @@
 package org.deeplearning4j.rl4j.learning.sync.qlearning.discrete;
 
 
+import org.deeplearning4j.rl4j.learning.sync.IExpReplay;
 import org.deeplearning4j.rl4j.learning.sync.qlearning.QLConfiguration;
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
@@ -22,6 +23,11 @@ public class QLearningDiscreteDense<O extends Encodable> extends QLearningDiscre
         super(mdp, dqn, conf, dataManager, conf.getEpsilonNbStep());
     }
 
+    public QLearningDiscreteDense(MDP<O, Integer, DiscreteSpace> mdp, IDQN dqn,
+                                  QLConfiguration conf, DataManager dataManager, IExpReplay<Integer> expReplay) {
+        super(mdp, dqn, conf, dataManager, conf.getEpsilonNbStep(), expReplay);
+    }
+
     public QLearningDiscreteDense(MDP<O, Integer, DiscreteSpace> mdp, DQNFactory factory,
                                   QLConfiguration conf, DataManager dataManager) {
         this(mdp, factory.buildDQN(mdp.getObservationSpace().getShape(), mdp.getActionSpace().getSize()),
@@ -0,0 +1,42 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * Keeps a rectangle of the frame
+ */
+public class Crop implements FrameTransform {
+
+    final private int offsetX;
+    final private int offsetY;
+    final private int width;
+    final private int height;
+
+    public Crop(int offsetX, int offsetY, int width, int height) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public Frame apply(Frame input) {
+        if (offsetX < 0 || offsetY < 0 || offsetX + width > input.getWidth() || offsetY + height > input.getHeight())
+            throw new IllegalArgumentException("Crop outside of a frame of " + input.getHeight() + "x" + input.getWidth());
+        return new FusedFrame(input) {
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public float get(int y, int x, int c) {
+                return input.get(y + offsetY, x + offsetX, c);
+            }
+        };
+    }
+
+}
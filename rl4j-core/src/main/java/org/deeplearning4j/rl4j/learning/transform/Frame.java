@@ -0,0 +1,27 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * A frame of pixels computed on demand by a stage of an ObservationPipeline
+ * from the frame of the previous stage: the stages are fused, the pixels
+ * of the observation being read only when a pixel of the output needs them.
+ */
+public interface Frame {
+
+    int getHeight();
+
+    int getWidth();
+
+    int getChannels();
+
+    /**
+     * @return the value of the channel c of the pixel (y, x)
+     */
+    float get(int y, int x, int c);
+
+    /**
+     * Called once per observation before any pixel is read, for the stages
+     * that need a pass of their own over their input
+     */
+    void prepare();
+
+}
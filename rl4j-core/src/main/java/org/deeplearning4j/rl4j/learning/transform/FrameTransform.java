@@ -0,0 +1,15 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * A stage of an ObservationPipeline. It is a stateless description that
+ * can be shared by several threads, the state of a stage being in its frame.
+ */
+public interface FrameTransform {
+
+    /**
+     * @param input frame of the previous stage
+     * @return the frame of this stage, computing its pixels from the input
+     */
+    Frame apply(Frame input);
+
+}
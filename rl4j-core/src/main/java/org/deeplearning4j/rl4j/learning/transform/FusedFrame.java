@@ -0,0 +1,34 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * Frame of a stage, of the size of its input by default
+ */
+abstract class FusedFrame implements Frame {
+
+    final protected Frame input;
+
+    FusedFrame(Frame input) {
+        this.input = input;
+    }
+
+    @Override
+    public int getHeight() {
+        return input.getHeight();
+    }
+
+    @Override
+    public int getWidth() {
+        return input.getWidth();
+    }
+
+    @Override
+    public int getChannels() {
+        return input.getChannels();
+    }
+
+    @Override
+    public void prepare() {
+        input.prepare();
+    }
+
+}
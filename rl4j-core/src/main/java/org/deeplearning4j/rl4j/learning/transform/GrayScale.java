@@ -0,0 +1,47 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * RGB to a single gray channel, with the weights of OpenCV
+ */
+public class GrayScale implements FrameTransform {
+
+    //weights of OpenCV in fixed point, on 14 bits
+    final private static int R = 4899;
+    final private static int G = 9617;
+    final private static int B = 1868;
+    final private static int SHIFT = 14;
+
+    final private boolean fixedPoint;
+
+    public GrayScale() {
+        this(false);
+    }
+
+    /**
+     * @param fixedPoint round as OpenCV does on uint8 pixels, the input must be integers in [0, 255]
+     */
+    public GrayScale(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+    }
+
+    @Override
+    public Frame apply(Frame input) {
+        if (input.getChannels() != 3)
+            throw new IllegalArgumentException("GrayScale needs 3 channels, got " + input.getChannels());
+        return new FusedFrame(input) {
+            @Override
+            public int getChannels() {
+                return 1;
+            }
+
+            @Override
+            public float get(int y, int x, int c) {
+                if (fixedPoint)
+                    return ((int) input.get(y, x, 0) * R + (int) input.get(y, x, 1) * G
+                            + (int) input.get(y, x, 2) * B + (1 << (SHIFT - 1))) >> SHIFT;
+                return 0.299f * input.get(y, x, 0) + 0.587f * input.get(y, x, 1) + 0.114f * input.get(y, x, 2);
+            }
+        };
+    }
+
+}
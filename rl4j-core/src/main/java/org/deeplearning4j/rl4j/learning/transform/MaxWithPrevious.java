@@ -0,0 +1,53 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * Max of every pixel over the frame and the previous one processed.
+ *
+ * The frames processed are the observations added to the history: with frame
+ * skipping the previous one is skipFrame steps older. This is not the flicker
+ * max of the atari DQN paper, over the last two raw frames of a skip, which
+ * needs every raw frame; it only merges sprites shown on alternate processed frames.
+ *
+ * It needs a pass of its own to keep its input for the next frame: it should come
+ * after the stages that reduce the frame (GrayScale, Resize, Crop) so that this
+ * pass is over as few pixels as possible.
+ */
+public class MaxWithPrevious implements FrameTransform {
+
+    @Override
+    public Frame apply(Frame input) {
+        return new FusedFrame(input) {
+            final private int size = input.getHeight() * input.getWidth() * input.getChannels();
+            private float[] current = new float[size];
+            private float[] previous = new float[size];
+            private boolean first = true;
+
+            @Override
+            public void prepare() {
+                input.prepare();
+                float[] swap = previous;
+                previous = current;
+                current = swap;
+
+                int width = input.getWidth();
+                int channels = input.getChannels();
+                for (int y = 0; y < input.getHeight(); y++)
+                    for (int x = 0; x < width; x++)
+                        for (int c = 0; c < channels; c++)
+                            current[(y * width + x) * channels + c] = input.get(y, x, c);
+
+                if (first) {
+                    System.arraycopy(current, 0, previous, 0, size);
+                    first = false;
+                }
+            }
+
+            @Override
+            public float get(int y, int x, int c) {
+                int i = (y * input.getWidth() + x) * input.getChannels() + c;
+                return Math.max(current[i], previous[i]);
+            }
+        };
+    }
+
+}
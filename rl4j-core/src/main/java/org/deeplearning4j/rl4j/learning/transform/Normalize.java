@@ -0,0 +1,27 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * Maps the values to value * scale + offset, by example to bring observations
+ * that are not pixels in [0, 255] to that range
+ */
+public class Normalize implements FrameTransform {
+
+    final private float scale;
+    final private float offset;
+
+    public Normalize(float scale, float offset) {
+        this.scale = scale;
+        this.offset = offset;
+    }
+
+    @Override
+    public Frame apply(Frame input) {
+        return new FusedFrame(input) {
+            @Override
+            public float get(int y, int x, int c) {
+                return input.get(y, x, c) * scale + offset;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A chain of FrameTransform applied to the observations by a JavaHistoryProcessor,
+ * before they are stacked (and scaled by 1/256 as Transition.concat does).
+ *
+ * The stages are fused: the output is computed in a single pass pulling every
+ * pixel through the chain, plus one pass for every stage that needs its own
+ * (MaxWithPrevious). Nothing is allocated per observation.
+ *
+ * A pipeline is an immutable description, shared by the threads through
+ * the IHistoryProcessor.Configuration: every processor runs its own Runner.
+ */
+public class ObservationPipeline {
+
+    final private List<FrameTransform> stages;
+
+    public ObservationPipeline(FrameTransform... stages) {
+        this.stages = Arrays.asList(stages.clone());
+    }
+
+    /**
+     * The pipeline of HistoryProcessor, stage for stage with the same rounding:
+     * uint8 RGB to gray, resize and crop, all in the fixed point of OpenCV
+     * (an exact halving being an area resize there as well, see Resize).
+     * As in HistoryProcessor, the frame is resized to a width of rescaledHeight
+     * and a height of rescaledWidth (the arguments of its Size are swapped).
+     */
+    public static ObservationPipeline of(IHistoryProcessor.Configuration conf) {
+        return new ObservationPipeline(new ToUint8(), new GrayScale(true),
+                new Resize(conf.getRescaledHeight(), conf.getRescaledWidth(), true),
+                new Crop(conf.getOffsetX(), conf.getOffsetY(), conf.getCroppingWidth(), conf.getCroppingHeight()));
+    }
+
+    public List<FrameTransform> getStages() {
+        return stages;
+    }
+
+    public Runner newRunner() {
+        return new Runner();
+    }
+
+    /**
+     * Runs the pipeline for a single thread, the stages being fused
+     * for the shape of the first observation
+     */
+    public class Runner {
+
+        final private RawFrame raw = new RawFrame();
+        private Frame output = null;
+        private float[] out;
+        private int[] fusedShape;
+
+        /**
+         * @param observation [height, width, channels] or [height, width]
+         * @return the output [height, width, channels] in row major order, overwritten by the next observation
+         */
+        public float[] process(INDArray observation) {
+            raw.set(observation);
+            if (output == null) {
+                Frame frame = raw;
+                for (FrameTransform stage : stages)
+                    frame = stage.apply(frame);
+                output = frame;
+                out = new float[output.getHeight() * output.getWidth() * output.getChannels()];
+                fusedShape = observation.shape().clone();
+            } else if (!Arrays.equals(fusedShape, observation.shape()))
+                throw new IllegalArgumentException("The shape of the observations changed");
+
+            output.prepare();
+            int width = output.getWidth();
+            int channels = output.getChannels();
+            int i = 0;
+            for (int y = 0; y < output.getHeight(); y++)
+                for (int x = 0; x < width; x++)
+                    for (int c = 0; c < channels; c++)
+                        out[i++] = output.get(y, x, c);
+            return out;
+        }
+
+        /**
+         * @return the output frame, null before the first observation
+         */
+        public Frame getOutput() {
+            return output;
+        }
+    }
+
+    //the observation, read in place
+    private static class RawFrame implements Frame {
+        private DataBuffer data;
+        private int offset;
+        private int height;
+        private int width;
+        private int channels;
+
+        void set(INDArray observation) {
+            int[] shape = observation.shape();
+            if (shape.length != 2 && shape.length != 3)
+                throw new IllegalArgumentException("Observations must be [height, width(, channels)]");
+            data = observation.data();
+            offset = observation.offset();
+            height = shape[0];
+            width = shape[1];
+            channels = shape.length == 3 ? shape[2] : 1;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getChannels() {
+            return channels;
+        }
+
+        @Override
+        public float get(int y, int x, int c) {
+            return data.getFloat(offset + (y * width + x) * channels + c);
+        }
+
+        @Override
+        public void prepare() {
+        }
+    }
+
+}
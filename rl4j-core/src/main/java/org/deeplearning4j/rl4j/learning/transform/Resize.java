@@ -0,0 +1,156 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * Bilinear resize, with the pixel centers aligned as OpenCV does.
+ * Followed by a Crop, only the kept pixels are computed.
+ *
+ * In fixed point, an exact halving of both sides is an area resize, each pixel
+ * the rounded mean of a 2x2 block, as OpenCV does for INTER_LINEAR on uint8.
+ * Other ratios, integer ones included, stay bilinear as in OpenCV.
+ */
+public class Resize implements FrameTransform {
+
+    //bits of the coefficients of OpenCV in fixed point
+    final private static int COEF_BITS = 11;
+    final private static int ONE = 1 << COEF_BITS;
+
+    final private int width;
+    final private int height;
+    final private boolean fixedPoint;
+
+    public Resize(int width, int height) {
+        this(width, height, false);
+    }
+
+    /**
+     * @param fixedPoint round as OpenCV does on uint8 pixels, the input must be integers in [0, 255]
+     */
+    public Resize(int width, int height, boolean fixedPoint) {
+        this.width = width;
+        this.height = height;
+        this.fixedPoint = fixedPoint;
+    }
+
+    @Override
+    public Frame apply(Frame input) {
+        if (fixedPoint && input.getHeight() == 2 * height && input.getWidth() == 2 * width)
+            return new HalvingFrame(input);
+        if (fixedPoint)
+            return new FixedPointFrame(input);
+
+        float scaleY = (float) input.getHeight() / height;
+        float scaleX = (float) input.getWidth() / width;
+        int lastY = input.getHeight() - 1;
+        int lastX = input.getWidth() - 1;
+        return new FusedFrame(input) {
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public float get(int y, int x, int c) {
+                float sy = Math.max((y + 0.5f) * scaleY - 0.5f, 0);
+                int y0 = Math.min((int) sy, lastY);
+                int y1 = Math.min(y0 + 1, lastY);
+                float dy = sy - y0;
+                float sx = Math.max((x + 0.5f) * scaleX - 0.5f, 0);
+                int x0 = Math.min((int) sx, lastX);
+                int x1 = Math.min(x0 + 1, lastX);
+                float dx = sx - x0;
+
+                float top = input.get(y0, x0, c) * (1 - dx) + input.get(y0, x1, c) * dx;
+                float bottom = input.get(y1, x0, c) * (1 - dx) + input.get(y1, x1, c) * dx;
+                return top * (1 - dy) + bottom * dy;
+            }
+        };
+    }
+
+    //the area resize of OpenCV on uint8 for a scale of 2: the 2x2 block summed and rounded half up
+    private class HalvingFrame extends FusedFrame {
+
+        HalvingFrame(Frame input) {
+            super(input);
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public float get(int y, int x, int c) {
+            int sum = (int) input.get(2 * y, 2 * x, c) + (int) input.get(2 * y, 2 * x + 1, c)
+                    + (int) input.get(2 * y + 1, 2 * x, c) + (int) input.get(2 * y + 1, 2 * x + 1, c);
+            return (sum + 2) >> 2;
+        }
+    }
+
+    //the interpolation of OpenCV on uint8: coefficients rounded on 11 bits, computed once per column and row
+    private class FixedPointFrame extends FusedFrame {
+
+        final private int[] x0 = new int[width];
+        final private int[] x1 = new int[width];
+        final private int[] alpha0 = new int[width];
+        final private int[] alpha1 = new int[width];
+        final private int[] y0 = new int[height];
+        final private int[] y1 = new int[height];
+        final private int[] beta0 = new int[height];
+        final private int[] beta1 = new int[height];
+
+        FixedPointFrame(Frame input) {
+            super(input);
+            coefficients(input.getWidth(), x0, x1, alpha0, alpha1);
+            coefficients(input.getHeight(), y0, y1, beta0, beta1);
+        }
+
+        private void coefficients(int inputSize, int[] from, int[] to, int[] coef0, int[] coef1) {
+            double scale = (double) inputSize / from.length;
+            for (int d = 0; d < from.length; d++) {
+                float f = (float) ((d + 0.5) * scale - 0.5);
+                int s = (int) Math.floor(f);
+                f -= s;
+                if (s < 0) {
+                    f = 0;
+                    s = 0;
+                }
+                if (s >= inputSize - 1) {
+                    f = 0;
+                    s = inputSize - 1;
+                }
+                from[d] = s;
+                to[d] = Math.min(s + 1, inputSize - 1);
+                coef0[d] = (int) Math.rint((1 - f) * ONE);
+                coef1[d] = (int) Math.rint(f * ONE);
+            }
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public float get(int y, int x, int c) {
+            int top = (int) input.get(y0[y], x0[x], c) * alpha0[x] + (int) input.get(y0[y], x1[x], c) * alpha1[x];
+            int bottom = (int) input.get(y1[y], x0[x], c) * alpha0[x] + (int) input.get(y1[y], x1[x], c) * alpha1[x];
+            return (((beta0[y] * (top >> 4)) >> 16) + ((beta1[y] * (bottom >> 4)) >> 16) + 2) >> 2;
+        }
+    }
+
+}
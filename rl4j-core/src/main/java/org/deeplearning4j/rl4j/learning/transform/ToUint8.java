@@ -0,0 +1,18 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+/**
+ * Rounds the values to integers in [0, 255], half to even as a conversion to uint8 does
+ */
+public class ToUint8 implements FrameTransform {
+
+    @Override
+    public Frame apply(Frame input) {
+        return new FusedFrame(input) {
+            @Override
+            public float get(int y, int x, int c) {
+                return (float) Math.min(Math.max(Math.rint(input.get(y, x, c)), 0), 255);
+            }
+        };
+    }
+
+}
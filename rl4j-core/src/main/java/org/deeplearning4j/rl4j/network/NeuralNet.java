@@ -25,6 +25,20 @@ public interface NeuralNet {
      */
     NeuralNet clone();
 
+    /**
+     * copy the parameters of a neural net of the same architecture into this one, in place
+     * @param from neural net to copy the parameters from
+     */
+    void copy(NeuralNet from);
+
+    /**
+     * soft update in place toward the parameters of a neural net of the same architecture:
+     * params = tau * from.params + (1 - tau) * params
+     * @param from neural net to move toward
+     * @param tau rate of the update in [0, 1], 1 being a copy
+     */
+    void softUpdate(NeuralNet from, double tau);
+
     /**
      * Calculate the gradients from input and label (target) of all outputs
      * @param input input batch
@@ -47,6 +61,20 @@ public interface NeuralNet {
      */
     void applyGradient(Gradient[] gradients, int batchSize);
 
+    /**
+     * turn the gradients into updates in place with the updater of this net (learning rate, momentum...),
+     * without modifying the params. applyGradient is applyUpdater followed by subUpdates.
+     * @param gradients gradients to transform
+     * @param batchSize batchSize from which the gradient was calculated on (similar to nstep)
+     */
+    void applyUpdater(Gradient[] gradients, int batchSize);
+
+    /**
+     * subtract updates from the params, in place and without lock
+     * @param updates updates of a neural net of the same architecture, returned by applyUpdater
+     */
+    void subUpdates(Gradient[] updates);
+
 
     /**
      * latest score from lastest fit
@@ -2,6 +2,7 @@ package org.deeplearning4j.rl4j.network.ac;
 
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.rl4j.network.NeuralNet;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
@@ -35,6 +36,16 @@ class ActorCriticCompGraph implements IActorCritic {
         return new ActorCriticCompGraph(cg.clone());
     }
 
+    public void copy(NeuralNet from) {
+        cg.params().assign(((ActorCriticCompGraph) from).cg.params());
+    }
+
+    public void softUpdate(NeuralNet from, double tau) {
+        INDArray fromParams = ((ActorCriticCompGraph) from).cg.params();
+        //(params - from) * (1 - tau) + from, without temporary array
+        cg.params().subi(fromParams).muli(1 - tau).addi(fromParams);
+    }
+
     public Gradient[] gradient(INDArray input, INDArray[] labels) {
         cg.setInput(0, input);
         cg.setLabels(labels);
@@ -43,8 +54,16 @@ class ActorCriticCompGraph implements IActorCritic {
     }
 
     public void applyGradient(Gradient[] gradient, int batchSize) {
+        applyUpdater(gradient, batchSize);
+        subUpdates(gradient);
+    }
+
+    public void applyUpdater(Gradient[] gradient, int batchSize) {
         cg.getUpdater().update(cg, gradient[0], 1, batchSize);
-        cg.params().subi(gradient[0].gradient());
+    }
+
+    public void subUpdates(Gradient[] updates) {
+        cg.params().subi(updates[0].gradient());
     }
 
     public double getLatestScore() {
@@ -2,6 +2,7 @@ package org.deeplearning4j.rl4j.network.ac;
 
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.rl4j.network.NeuralNet;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.io.OutputStream;
@@ -33,6 +34,23 @@ class ActorCriticSeparate implements IActorCritic{
         return new ActorCriticSeparate(valueNet.clone(), policyNet.clone());
     }
 
+    public void copy(NeuralNet from) {
+        ActorCriticSeparate ac = (ActorCriticSeparate) from;
+        valueNet.params().assign(ac.valueNet.params());
+        policyNet.params().assign(ac.policyNet.params());
+    }
+
+    public void softUpdate(NeuralNet from, double tau) {
+        ActorCriticSeparate ac = (ActorCriticSeparate) from;
+        softUpdate(valueNet.params(), ac.valueNet.params(), tau);
+        softUpdate(policyNet.params(), ac.policyNet.params(), tau);
+    }
+
+    //(params - from) * (1 - tau) + from, without temporary array
+    private static void softUpdate(INDArray params, INDArray fromParams, double tau) {
+        params.subi(fromParams).muli(1 - tau).addi(fromParams);
+    }
+
     public Gradient[] gradient(INDArray input, INDArray[] labels) {
         valueNet.setInput(input);
         valueNet.setLabels(labels[0]);
@@ -45,10 +63,18 @@ class ActorCriticSeparate implements IActorCritic{
 
 
     public void applyGradient(Gradient[] gradient, int batchSize) {
+        applyUpdater(gradient, batchSize);
+        subUpdates(gradient);
+    }
+
+    public void applyUpdater(Gradient[] gradient, int batchSize) {
         valueNet.getUpdater().update(valueNet, gradient[0], 1, batchSize);
-        valueNet.params().subi(gradient[0].gradient());
         policyNet.getUpdater().update(policyNet, gradient[1], 1, batchSize);
-        policyNet.params().subi(gradient[1].gradient());
+    }
+
+    public void subUpdates(Gradient[] updates) {
+        valueNet.params().subi(updates[0].gradient());
+        policyNet.params().subi(updates[1].gradient());
     }
 
     public double getLatestScore() {
@@ -2,6 +2,7 @@ package org.deeplearning4j.rl4j.network.dqn;
 
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.rl4j.network.NeuralNet;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
@@ -50,6 +51,16 @@ public class DQN implements IDQN {
         return new DQN(mln.clone());
     }
 
+    public void copy(NeuralNet from) {
+        mln.params().assign(((DQN) from).mln.params());
+    }
+
+    public void softUpdate(NeuralNet from, double tau) {
+        INDArray fromParams = ((DQN) from).mln.params();
+        //(params - from) * (1 - tau) + from, without temporary array
+        mln.params().subi(fromParams).muli(1 - tau).addi(fromParams);
+    }
+
     public Gradient[] gradient(INDArray input, INDArray labels) {
         mln.setInput(input);
         mln.setLabels(labels);
@@ -63,8 +74,16 @@ public class DQN implements IDQN {
     }
 
     public void applyGradient(Gradient[] gradient, int batchSize) {
+        applyUpdater(gradient, batchSize);
+        subUpdates(gradient);
+    }
+
+    public void applyUpdater(Gradient[] gradient, int batchSize) {
         mln.getUpdater().update(mln, gradient[0], 1, batchSize);
-        mln.params().subi(gradient[0].gradient());
+    }
+
+    public void subUpdates(Gradient[] updates) {
+        mln.params().subi(updates[0].gradient());
     }
 
     public double getLatestScore() {
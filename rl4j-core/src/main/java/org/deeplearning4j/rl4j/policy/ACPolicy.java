@@ -1,30 +1,61 @@
 package org.deeplearning4j.rl4j.policy;
 
 import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.network.ac.IActorCritic;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.security.SecureRandom;
+import java.util.List;
 import java.util.Random;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) on 8/5/16.
  *
  * A stochastic policy thats explore the environment based on
- * the softmax output of the actor critic
+ * the softmax output of the actor critic, or a greedy one that
+ * takes its most probable action
  */
 public class ACPolicy<O extends Encodable> extends Policy<O, Integer> {
 
     final private IActorCritic IActorCritic;
+    final private boolean greedy;
     private Random rd;
 
     public ACPolicy(IActorCritic IActorCritic) {
+        this(IActorCritic, false);
+    }
+
+    public ACPolicy(IActorCritic IActorCritic, boolean greedy) {
         this.IActorCritic = IActorCritic;
+        this.greedy = greedy;
         this.rd = new SecureRandom();
     }
 
     public Integer nextAction(INDArray input) {
-        INDArray output = IActorCritic.outputAll(input)[1];
+        return sample(IActorCritic.outputAll(input)[1]);
+    }
+
+    public Decision<Integer> decide(INDArray input) {
+        INDArray[] output = IActorCritic.outputAll(input);
+        return new Decision<>(selectAction(output), output);
+    }
+
+    public Integer selectAction(INDArray[] output) {
+        return sample(output[1]);
+    }
+
+    public void nextActions(INDArray batch, List<Integer> actions) {
+        INDArray output = IActorCritic.outputAll(batch)[1];
+        for (int i = 0; i < actions.size(); i++) {
+            actions.set(i, sample(output.getRow(i)));
+        }
+    }
+
+    private Integer sample(INDArray output) {
+        if (greedy)
+            return Learning.getMaxAction(output);
+
         float rVal = rd.nextFloat();
         for (int i = 0; i < output.columns(); i++) {
             //System.out.println(i + " " + rVal + " " + output.getFloat(i));
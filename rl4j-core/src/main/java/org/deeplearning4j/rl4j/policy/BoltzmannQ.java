@@ -25,9 +25,17 @@ public class BoltzmannQ<O extends Encodable> extends Policy<O, Integer> {
     }
 
     public Integer nextAction(INDArray input) {
+        return selectAction(dqn.outputAll(input));
+    }
+
+    public Decision<Integer> decide(INDArray input) {
+        INDArray[] output = dqn.outputAll(input);
+        return new Decision<>(selectAction(output), output);
+    }
+
+    public Integer selectAction(INDArray[] output) {
 
-        INDArray output = dqn.output(input);
-        INDArray exp = exp(output);
+        INDArray exp = exp(output[0]);
 
         double sum = exp.sum(1).getDouble(0);
         double picked = rd.nextDouble() * sum;
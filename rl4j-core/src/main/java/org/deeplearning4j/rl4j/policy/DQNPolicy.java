@@ -6,6 +6,9 @@ import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.network.dqn.DQN;
 import org.deeplearning4j.rl4j.network.dqn.IDQN;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.List;
 
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) 7/18/16.
@@ -30,6 +33,30 @@ public class DQNPolicy<O extends Encodable> extends Policy<O, Integer> {
         return Learning.getMaxAction(output);
     }
 
+    public Decision<Integer> decide(INDArray input) {
+        INDArray[] output = dqn.outputAll(input);
+        return new Decision<>(selectAction(output), output);
+    }
+
+    public Integer selectAction(INDArray[] output) {
+        return Learning.getMaxAction(output[0]);
+    }
+
+    public void selectActions(INDArray[] output, List<Integer> actions) {
+        setMaxActions(output[0], actions);
+    }
+
+    public void nextActions(INDArray batch, List<Integer> actions) {
+        setMaxActions(dqn.output(batch), actions);
+    }
+
+    private static void setMaxActions(INDArray qs, List<Integer> actions) {
+        INDArray maxActions = Nd4j.argMax(qs, 1);
+        for (int i = 0; i < actions.size(); i++) {
+            actions.set(i, maxActions.getInt(i));
+        }
+    }
+
     public void save(String filename){
         dqn.save(filename);
     }
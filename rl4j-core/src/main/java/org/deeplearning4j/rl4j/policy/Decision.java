@@ -0,0 +1,30 @@
+package org.deeplearning4j.rl4j.policy;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Action chosen by a policy with the outputs of the neural net it was chosen from,
+ * so that they are not computed again by the caller
+ */
+public class Decision<A> {
+
+    final private A action;
+    final private INDArray[] output;
+
+    public Decision(A action, INDArray[] output) {
+        this.action = action;
+        this.output = output;
+    }
+
+    public A getAction() {
+        return action;
+    }
+
+    /**
+     * @return outputs of the neural net on the input, null if the policy has none
+     */
+    public INDArray[] getOutput() {
+        return output;
+    }
+
+}
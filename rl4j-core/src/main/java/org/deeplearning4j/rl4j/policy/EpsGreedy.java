@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.security.SecureRandom;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -56,6 +57,43 @@ public class EpsGreedy<O extends Encodable, A, AS extends ActionSpace<A>> extend
         }
     }
 
+    /**
+     * The outputs are computed even if the action is random, for the caller
+     */
+    public Decision<A> decide(INDArray input) {
+        Decision<A> decision = policy.decide(input);
+        if (rd.nextFloat() > getEpsilon())
+            return decision;
+        else
+            return new Decision<>(mdp.getActionSpace().randomAction(), decision.getOutput());
+    }
+
+    public A selectAction(INDArray[] output) {
+        if (rd.nextFloat() > getEpsilon())
+            return policy.selectAction(output);
+        else
+            return mdp.getActionSpace().randomAction();
+    }
+
+    public void selectActions(INDArray[] output, List<A> actions) {
+        policy.selectActions(output, actions);
+        explore(actions);
+    }
+
+    public void nextActions(INDArray batch, List<A> actions) {
+        policy.nextActions(batch, actions);
+        explore(actions);
+    }
+
+    //replace every action by a random one with epsilon probability
+    private void explore(List<A> actions) {
+        double ep = getEpsilon();
+        for (int i = 0; i < actions.size(); i++) {
+            if (rd.nextFloat() <= ep)
+                actions.set(i, mdp.getActionSpace().randomAction());
+        }
+    }
+
     public Policy<O, A> getPolicy() {
         return policy;
     }
@@ -8,9 +8,14 @@ import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
 import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.learning.sync.Transition;
 import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.mdp.VectorMDP;
+import org.deeplearning4j.rl4j.mdp.VectorStepReply;
 
 import org.nd4j.linalg.api.ndarray.INDArray;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author rubenfiszel (ruben.fiszel@epfl.ch) 7/18/16.
  *
@@ -22,6 +27,101 @@ public abstract class Policy<O extends Encodable, A> {
 
     public abstract A nextAction(INDArray input);
 
+    /**
+     * Choose the next action along with the outputs of the neural net it was chosen from.
+     * By default there are no outputs.
+     * @param input batch of 1
+     * @return the decision
+     */
+    public Decision<A> decide(INDArray input) {
+        return new Decision<>(nextAction(input), null);
+    }
+
+    /**
+     * Choose the next action from the outputs of the neural net of the policy,
+     * computed elsewhere (by example batched with the inputs of other threads)
+     * @param output outputs of the neural net on a batch of 1
+     * @return the action
+     */
+    public abstract A selectAction(INDArray[] output);
+
+    /**
+     * Choose the next action of every row of a batch from the outputs of the neural net
+     * of the policy, computed elsewhere. By default selectAction on every row.
+     * @param output outputs of the neural net on the batch
+     * @param actions list in which to set the action of each row
+     */
+    public void selectActions(INDArray[] output, List<A> actions) {
+        INDArray[] rowOutput = new INDArray[output.length];
+        for (int i = 0; i < actions.size(); i++) {
+            for (int j = 0; j < output.length; j++)
+                rowOutput[j] = output[j].getRow(i);
+            actions.set(i, selectAction(rowOutput));
+        }
+    }
+
+    /**
+     * Choose the next action of every row of a batch. By default one forward pass
+     * per row, policies based on a neural net override it with a single one.
+     * @param batch batch of inputs
+     * @param actions list in which to set the action of each row
+     */
+    public void nextActions(INDArray batch, List<A> actions) {
+        for (int i = 0; i < actions.size(); i++) {
+            actions.set(i, nextAction(row(batch, i)));
+        }
+    }
+
+    /**
+     * @return row i of a batch as a batch of 1
+     */
+    protected static INDArray row(INDArray batch, int i) {
+        if (batch.rank() > 2) {
+            INDArray slice = batch.slice(i);
+            return slice.reshape(Learning.makeShape(1, slice.shape()));
+        }
+        return batch.getRow(i);
+    }
+
+    /**
+     * Play an episode in every environment, choosing the actions of all of them in one batch
+     * @param mdp the environments
+     * @return the mean reward of the episodes
+     */
+    public <AS extends ActionSpace<A>> double play(VectorMDP<O, A, AS> mdp) {
+        int numEnvs = mdp.getNumEnvs();
+        double[] rewards = new double[numEnvs];
+        boolean[] done = new boolean[numEnvs];
+        int nbDone = 0;
+
+        List<A> actions = new ArrayList<>(numEnvs);
+        for (int i = 0; i < numEnvs; i++) {
+            actions.add(mdp.getActionSpace().noOp());
+        }
+
+        INDArray obs = mdp.reset();
+        while (nbDone < numEnvs) {
+            nextActions(Transition.scaleBatch(obs), actions);
+            VectorStepReply stepReply = mdp.step(actions);
+            for (int i = 0; i < numEnvs; i++) {
+                //environments done keep playing (they are reset) until all are done
+                if (!done[i]) {
+                    rewards[i] += stepReply.getRewards()[i];
+                    if (stepReply.isDone(i)) {
+                        done[i] = true;
+                        nbDone++;
+                    }
+                }
+            }
+            obs = stepReply.getObservations();
+        }
+
+        double reward = 0;
+        for (double r : rewards)
+            reward += r;
+        return reward / numEnvs;
+    }
+
     public <AS extends ActionSpace<A>> double play(MDP<O, A, AS> mdp) {
         return play(mdp, null);
     }
@@ -59,7 +159,7 @@ public abstract class Policy<O extends Encodable, A> {
                     } else
                         history = new INDArray[]{input};
                 }
-                INDArray hstack = Transition.concat(history);
+                INDArray hstack = isHistoryProcessor ? hp.getStackedHistory() : Transition.concat(history);
                 if (hstack.shape().length > 2)
                     hstack = hstack.reshape(Learning.makeShape(1, hstack.shape()));
                 action = nextAction(hstack);
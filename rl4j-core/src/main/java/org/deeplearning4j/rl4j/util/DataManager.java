@@ -225,7 +225,7 @@ public class DataManager {
         return saveData;
     }
 
-    public void appendStat(StatEntry statEntry) {
+    synchronized public void appendStat(StatEntry statEntry) {
 
         if (!saveData)
             return;
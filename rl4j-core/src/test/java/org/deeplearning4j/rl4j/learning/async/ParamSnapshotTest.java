@@ -0,0 +1,131 @@
+package org.deeplearning4j.rl4j.learning.async;
+
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.rl4j.network.NeuralNet;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParamSnapshotTest {
+
+    final private static int NB_PARAMS = 10000;
+
+    @Test
+    public void readersNeverSeeTornParameters() throws Throwable {
+        int versions = 2000;
+        int nbReaders = 4;
+        VectorNet net = new VectorNet();
+        ParamSnapshot<VectorNet> snapshot = new ParamSnapshot<>(net);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        //version v holds parameters all equal to v
+        Thread writer = new Thread(() -> {
+            for (int v = 1; v <= versions; v++) {
+                net.fill(v);
+                snapshot.publish(net);
+            }
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < nbReaders; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    VectorNet local = new VectorNet();
+                    long localVersion = -1;
+                    while (localVersion < versions) {
+                        long version = snapshot.sync(local, localVersion);
+                        assertTrue("version " + version + " after " + localVersion, version >= localVersion);
+                        for (double param : local.params)
+                            assertEquals(version, param, 0);
+                        localVersion = version;
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+
+        for (Thread reader : readers)
+            reader.start();
+        writer.start();
+        writer.join();
+        for (Thread reader : readers)
+            reader.join();
+
+        if (failure.get() != null)
+            throw failure.get();
+        assertEquals(versions, snapshot.getVersion());
+    }
+
+    //parameters copied one by one, torn if read while written
+    static class VectorNet implements NeuralNet {
+
+        final private double[] params = new double[NB_PARAMS];
+
+        void fill(double value) {
+            for (int i = 0; i < params.length; i++)
+                params[i] = value;
+        }
+
+        public INDArray[] outputAll(INDArray batch) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public VectorNet clone() {
+            VectorNet net = new VectorNet();
+            net.copy(this);
+            return net;
+        }
+
+        public void copy(NeuralNet from) {
+            double[] fromParams = ((VectorNet) from).params;
+            for (int i = 0; i < params.length; i++)
+                params[i] = fromParams[i];
+        }
+
+        public void softUpdate(NeuralNet from, double tau) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Gradient[] gradient(INDArray input, INDArray[] labels) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void fit(INDArray input, INDArray[] labels) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void applyGradient(Gradient[] gradients, int batchSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void applyUpdater(Gradient[] gradients, int batchSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void subUpdates(Gradient[] updates) {
+            throw new UnsupportedOperationException();
+        }
+
+        public double getLatestScore() {
+            return 0;
+        }
+
+        public void save(OutputStream os) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void save(String filename) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentExpReplayTest {
+
+    final private static int[] SHAPE = {2};
+
+    @Test
+    public void samplesWholeTransitionsWhileTheyAreStored() throws InterruptedException {
+        int maxSize = 256;
+        int writers = 4;
+        int perWriter = 5000;
+        ConcurrentExpReplay<Integer> expReplay = new ConcurrentExpReplay<>(maxSize, 32);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int first = w * perWriter;
+            threads.add(new Thread(() -> {
+                for (int id = first; id < first + perWriter; id++)
+                    expReplay.store(transition(id));
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+
+        ExpReplayBatch batch = new ExpReplayBatch(32, SHAPE);
+        boolean writing = true;
+        while (writing) {
+            writing = false;
+            for (Thread thread : threads)
+                writing |= thread.isAlive();
+            expReplay.getBatch(batch);
+            assertWholeTransitions(batch, maxSize);
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(writers * perWriter, expReplay.getCount());
+        //every slot is published: the batches are full
+        expReplay.getBatch(batch);
+        assertEquals(32, batch.getSize());
+        assertWholeTransitions(batch, maxSize);
+    }
+
+    @Test
+    public void emptyExpReplayGivesAnEmptyBatch() {
+        ExpReplayBatch batch = new ExpReplayBatch(4, SHAPE);
+        new ConcurrentExpReplay<Integer>(8, 4).getBatch(batch);
+        assertEquals(0, batch.getSize());
+        assertEquals(0, new ConcurrentExpReplay<Integer>(8, 4).getBatch().size());
+    }
+
+    //the observation, next observation and action of every row are the ones of the transition of its reward
+    private static void assertWholeTransitions(ExpReplayBatch batch, int maxSize) {
+        assertTrue(batch.getSize() <= batch.getCapacity());
+        for (int i = 0; i < batch.getSize(); i++) {
+            int id = (int) batch.getRewards()[i];
+            assertTrue(batch.getIndices()[i] >= 0 && batch.getIndices()[i] < maxSize);
+            assertEquals(id % 3, batch.getActions()[i]);
+            assertEquals(id, batch.getObs().getRow(i).getDouble(0), 0);
+            assertEquals(id, batch.getObs().getRow(i).getDouble(1), 0);
+            assertEquals(id + 1, batch.getNextObs().getRow(i).getDouble(0), 0);
+            assertEquals(id + 1, batch.getNextObs().getRow(i).getDouble(1), 0);
+        }
+    }
+
+    private static Transition<Integer> transition(int id) {
+        INDArray obs = Nd4j.create(new float[]{id, id}, new int[]{1, 2});
+        INDArray next = Nd4j.create(new float[]{id + 1, id + 1}, new int[]{1, 2});
+        return new Transition<>(new INDArray[]{obs}, id % 3, id, false, next);
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExpReplayBatchTest {
+
+    final private static int HISTORY_LENGTH = 2;
+    final private static int[] FRAME_SHAPE = {1, 2, 2};
+    final private static int[] SHAPE = {HISTORY_LENGTH, 2, 2};
+
+    @Test
+    public void finishScalesOnlyTheRowsWritten() {
+        ExpReplayBatch batch = new ExpReplayBatch(4, SHAPE);
+        ExpReplayBatch.rows(batch.getObs(), 2, 4).assign(7);
+        ExpReplayBatch.rows(batch.getNextObs(), 2, 4).assign(7);
+
+        for (int i = 0; i < 2; i++)
+            batch.put(i, transition(i, 128), i);
+        batch.finish(2, false);
+
+        assertEquals(2, batch.getSize());
+        assertAll(ExpReplayBatch.rows(batch.getObs(), 0, 2), 0.5f);
+        assertAll(ExpReplayBatch.rows(batch.getNextObs(), 0, 2), 0.5f);
+        assertAll(ExpReplayBatch.rows(batch.getObs(), 2, 4), 7);
+        assertAll(ExpReplayBatch.rows(batch.getNextObs(), 2, 4), 7);
+    }
+
+    @Test
+    public void fillsABatchLargerThanTheExpReplay() {
+        ExpReplay<Integer> expReplay = new ExpReplay<>(10, 8);
+        for (int i = 0; i < 3; i++)
+            expReplay.store(transition(i, i));
+
+        ExpReplayBatch batch = new ExpReplayBatch(8, SHAPE);
+        expReplay.getBatch(batch);
+
+        assertEquals(8, batch.getSize());
+        for (int i = 0; i < batch.getSize(); i++) {
+            int index = batch.getIndices()[i];
+            assertTrue(index >= 0 && index < 3);
+            //the transitions are in the order stored: the reward is the index
+            assertEquals(index, batch.getRewards()[i], 0);
+            assertAll(batch.getObs().slice(i), index / 256f);
+        }
+    }
+
+    @Test
+    public void emptyExpReplayGivesAnEmptyBatch() {
+        ExpReplayBatch batch = new ExpReplayBatch(4, SHAPE);
+        new ExpReplay<Integer>(10, 4).getBatch(batch);
+        assertEquals(0, batch.getSize());
+    }
+
+    //all the frames of the transition are filled with value
+    private static Transition<Integer> transition(int id, float value) {
+        INDArray[] history = new INDArray[HISTORY_LENGTH];
+        for (int j = 0; j < HISTORY_LENGTH; j++)
+            history[j] = Nd4j.create(FRAME_SHAPE).assign(value);
+        return new Transition<>(history, id % 2, id, false, Nd4j.create(FRAME_SHAPE).assign(value));
+    }
+
+    private static void assertAll(INDArray array, float value) {
+        float[] expected = new float[array.length()];
+        Arrays.fill(expected, value);
+        assertArrayEquals(expected, array.dup().data().asFloat(), 1e-6f);
+    }
+
+}
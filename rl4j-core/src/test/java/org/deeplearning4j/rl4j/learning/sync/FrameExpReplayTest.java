@@ -0,0 +1,106 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FrameExpReplay must give back the batches ExpReplay gives for the same stream of transitions
+ */
+public class FrameExpReplayTest {
+
+    final private static int HISTORY_LENGTH = 4;
+    final private static int[] FRAME_SHAPE = {1, 3, 2};
+
+    private int nextPixel = 0;
+
+    @Test
+    public void sameBatchesAsExpReplay() {
+        int maxSize = 50;
+        ExpReplay<Integer> expReplay = new ExpReplay<>(maxSize, 32);
+        //enough frames for every transition to stay valid, even with short episodes
+        FrameExpReplay frameExpReplay = new FrameExpReplay(maxSize, 32, HISTORY_LENGTH, FRAME_SHAPE,
+                (long) maxSize * (HISTORY_LENGTH + 1));
+
+        int id = 0;
+        for (int episodeLength : new int[]{1, 2, 7, 1, 30, 3, 25}) {
+            id = storeEpisode(episodeLength, id, expReplay, frameExpReplay);
+        }
+
+        assertEquals(maxSize, frameExpReplay.getSize());
+        assertSameRows(batch(expReplay, maxSize), batch(frameExpReplay, maxSize));
+    }
+
+    @Test
+    public void evictsTransitionsWithOverwrittenFrames() {
+        int maxSize = 20;
+        ExpReplay<Integer> expReplay = new ExpReplay<>(maxSize, 8);
+        FrameExpReplay frameExpReplay = new FrameExpReplay(maxSize, 8, HISTORY_LENGTH, FRAME_SHAPE);
+
+        int id = 0;
+        for (int i = 0; i < 10; i++) {
+            id = storeEpisode(2, id, expReplay, frameExpReplay);
+        }
+
+        int size = frameExpReplay.getSize();
+        assertTrue(size > 0 && size < maxSize);
+        //every transition sampled is still the one stored
+        assertSameRows(batch(expReplay, maxSize), batch(frameExpReplay, size));
+    }
+
+    //an episode as QLearningDiscrete stores it: the history of a step is the next history of the previous one
+    private int storeEpisode(int length, int id, IExpReplay<Integer> first, IExpReplay<Integer> second) {
+        INDArray[] history = new INDArray[HISTORY_LENGTH];
+        for (int j = 0; j < HISTORY_LENGTH; j++)
+            history[j] = newFrame();
+
+        for (int step = 0; step < length; step++) {
+            INDArray next = newFrame();
+            Transition<Integer> transition = new Transition<>(history, id % 3, id, step == length - 1, next);
+            first.store(transition);
+            second.store(transition);
+            history = Transition.append(history, next);
+            id++;
+        }
+        return id;
+    }
+
+    private INDArray newFrame() {
+        float[] pixels = new float[6];
+        for (int i = 0; i < pixels.length; i++)
+            pixels[i] = (nextPixel++) % 256;
+        return Nd4j.create(pixels, FRAME_SHAPE);
+    }
+
+    private static ExpReplayBatch batch(IExpReplay<Integer> expReplay, int size) {
+        ExpReplayBatch batch = new ExpReplayBatch(size, new int[]{HISTORY_LENGTH, 3, 2});
+        expReplay.getBatch(batch);
+        return batch;
+    }
+
+    //the rewards are the ids of the transitions, the rows are matched by them
+    private static void assertSameRows(ExpReplayBatch expected, ExpReplayBatch actual) {
+        Map<Double, Integer> rows = new HashMap<>();
+        for (int i = 0; i < expected.getSize(); i++)
+            rows.put(expected.getRewards()[i], i);
+
+        for (int i = 0; i < actual.getSize(); i++) {
+            Integer row = rows.get(actual.getRewards()[i]);
+            assertTrue("transition " + actual.getRewards()[i] + " was not stored", row != null);
+            assertEquals(expected.getActions()[row], actual.getActions()[i]);
+            assertEquals(expected.getTerminal()[row], actual.getTerminal()[i]);
+            assertArrayEquals(expected.getObs().slice(row).dup().data().asFloat(),
+                    actual.getObs().slice(i).dup().data().asFloat(), 0f);
+            assertArrayEquals(expected.getNextObs().slice(row).dup().data().asFloat(),
+                    actual.getNextObs().slice(i).dup().data().asFloat(), 0f);
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+public class IndexSamplerTest {
+
+    @Test
+    public void drawsDistinctIndicesInRange() {
+        IndexSampler sampler = new IndexSampler(new Random(42));
+        int[] out = new int[64];
+        //the set is reused from one draw to the other, and grows with n
+        for (int draw = 0; draw < 1000; draw++) {
+            int n = 1 + draw % out.length;
+            int bound = n + draw % 7;
+            sampler.sample(bound, out, n);
+
+            boolean[] drawn = new boolean[bound];
+            for (int i = 0; i < n; i++) {
+                assertTrue(out[i] >= 0 && out[i] < bound);
+                assertTrue("index " + out[i] + " drawn twice", !drawn[out[i]]);
+                drawn[out[i]] = true;
+            }
+        }
+    }
+
+    @Test
+    public void drawsWithReplacementWhenTooFewIndices() {
+        IndexSampler sampler = new IndexSampler(new Random(42));
+        int[] out = new int[32];
+        for (int bound = 1; bound < out.length; bound++) {
+            sampler.sample(bound, out, out.length);
+            for (int index : out)
+                assertTrue(index >= 0 && index < bound);
+        }
+    }
+
+}
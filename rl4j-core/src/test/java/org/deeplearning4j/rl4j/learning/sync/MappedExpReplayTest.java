@@ -0,0 +1,114 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedExpReplayTest {
+
+    final private static int HISTORY_LENGTH = 2;
+    final private static int[] FRAME_SHAPE = {1, 2, 3};
+    final private static int FRAME_SIZE = 6;
+
+    @Test
+    public void reopensTheTransitionsStored() throws IOException {
+        File directory = Files.createTempDirectory("mapped-exp-replay").toFile();
+        try {
+            int size = 12;
+            MappedExpReplay expReplay = open(directory, size);
+            for (int id = 0; id < size; id++)
+                expReplay.store(transition(id));
+            expReplay.close();
+
+            MappedExpReplay reopened = open(directory, size);
+            //as many rows as transitions: every transition once
+            ExpReplayBatch batch = new ExpReplayBatch(size, new int[]{HISTORY_LENGTH, 2, 3});
+            reopened.getBatch(batch);
+            reopened.close();
+
+            assertEquals(size, batch.getSize());
+            boolean[] read = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                int id = (int) batch.getRewards()[i];
+                assertTrue(!read[id]);
+                read[id] = true;
+                assertEquals(id % 3, batch.getActions()[i]);
+                assertEquals(id % 4 == 3, batch.getTerminal()[i]);
+                for (int j = 0; j < HISTORY_LENGTH; j++) {
+                    assertFrame(id + j, batch.getObs().slice(i).slice(j));
+                    assertFrame(id + j + 1, batch.getNextObs().slice(i).slice(j));
+                }
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void cannotBeUsedOnceClosed() throws IOException {
+        File directory = Files.createTempDirectory("mapped-exp-replay").toFile();
+        try {
+            MappedExpReplay expReplay = open(directory, 4);
+            expReplay.close();
+            //closing twice is a no-op
+            expReplay.close();
+            try {
+                expReplay.store(transition(0));
+                fail("stored in a closed exp replay");
+            } catch (IllegalStateException e) {
+                //expected
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static MappedExpReplay open(File directory, int maxSize) throws IOException {
+        return new MappedExpReplay(directory, maxSize, 4, HISTORY_LENGTH, FRAME_SHAPE, true);
+    }
+
+    //the frames of transition id are the frames id to id + HISTORY_LENGTH, its reward is its id
+    private static Transition<Integer> transition(int id) {
+        INDArray[] history = new INDArray[HISTORY_LENGTH];
+        for (int j = 0; j < HISTORY_LENGTH; j++)
+            history[j] = frame(id + j);
+        return new Transition<>(history, id % 3, id, id % 4 == 3, frame(id + HISTORY_LENGTH));
+    }
+
+    private static INDArray frame(int n) {
+        return Nd4j.create(pixels(n), FRAME_SHAPE);
+    }
+
+    private static float[] pixels(int n) {
+        float[] pixels = new float[FRAME_SIZE];
+        for (int i = 0; i < FRAME_SIZE; i++)
+            pixels[i] = (n * FRAME_SIZE + i) % 256;
+        return pixels;
+    }
+
+    //the batches are scaled by 1/256
+    private static void assertFrame(int n, INDArray actual) {
+        float[] expected = pixels(n);
+        for (int i = 0; i < FRAME_SIZE; i++)
+            expected[i] /= 256f;
+        assertArrayEquals(expected, actual.dup().data().asFloat(), 1e-6f);
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+        directory.delete();
+    }
+
+}
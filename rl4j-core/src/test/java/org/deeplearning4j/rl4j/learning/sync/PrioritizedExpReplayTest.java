@@ -0,0 +1,82 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrioritizedExpReplayTest {
+
+    final private static double ALPHA = 0.6;
+    final private static double EPSILON = 1e-6;
+    final private static int[] SHAPE = {2};
+
+    @Test
+    public void normalizesTheWeightsByTheMinPriority() {
+        int size = 5;
+        double[] tdErrors = {0.5, -2, 1, 0.1, 3};
+        PrioritizedExpReplay<Integer> expReplay = new PrioritizedExpReplay<>(size, size, ALPHA, 0.4, 10, EPSILON);
+        for (int i = 0; i < size; i++)
+            expReplay.store(transition(i));
+
+        //the priorities fed back are |TD-error| + epsilon, in alpha space
+        ExpReplayBatch feedback = new ExpReplayBatch(size, SHAPE);
+        for (int i = 0; i < size; i++) {
+            feedback.put(i, transition(i), i);
+            feedback.getTdErrors()[i] = tdErrors[i];
+        }
+        feedback.finish(size, false);
+        expReplay.updatePriorities(feedback);
+
+        double[] priorities = new double[size];
+        double minPriority = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            priorities[i] = Math.pow(Math.abs(tdErrors[i]) + EPSILON, ALPHA);
+            minPriority = Math.min(minPriority, priorities[i]);
+        }
+
+        double beta = expReplay.getBeta();
+        ExpReplayBatch batch = new ExpReplayBatch(size, SHAPE);
+        expReplay.getBatch(batch);
+
+        assertEquals(size, batch.getSize());
+        assertTrue(batch.isWeighted());
+        for (int i = 0; i < size; i++) {
+            int slot = batch.getIndices()[i];
+            assertTrue(slot >= 0 && slot < size);
+            assertEquals(slot, batch.getRewards()[i], 0);
+            //(N * P(i))^-beta / max_j (N * P(j))^-beta
+            double expected = Math.pow(priorities[slot] / minPriority, -beta);
+            assertEquals(expected, batch.getWeights()[i], 1e-9);
+            assertTrue(batch.getWeights()[i] <= 1);
+        }
+    }
+
+    @Test
+    public void annealsBetaOverTheWeightedBatches() {
+        PrioritizedExpReplay<Integer> expReplay = new PrioritizedExpReplay<>(10, 2, ALPHA, 0.4, 4, EPSILON);
+        for (int i = 0; i < 10; i++)
+            expReplay.store(transition(i));
+        ExpReplayBatch batch = new ExpReplayBatch(2, SHAPE);
+
+        assertEquals(0.4, expReplay.getBeta(), 1e-9);
+        //the batches without weights do not count
+        expReplay.getBatch();
+        assertEquals(0.4, expReplay.getBeta(), 1e-9);
+
+        for (int i = 1; i <= 6; i++) {
+            expReplay.getBatch(batch);
+            assertEquals(Math.min(1.0, 0.4 + 0.15 * i), expReplay.getBeta(), 1e-9);
+        }
+    }
+
+    //the reward is the id of the transition
+    private static Transition<Integer> transition(int id) {
+        INDArray obs = Nd4j.create(new float[]{id, 0}, new int[]{1, 2});
+        INDArray next = Nd4j.create(new float[]{id, 1}, new int[]{1, 2});
+        return new Transition<>(new INDArray[]{obs}, id % 2, id, false, next);
+    }
+
+}
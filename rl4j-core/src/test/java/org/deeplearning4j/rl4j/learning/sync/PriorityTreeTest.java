@@ -0,0 +1,67 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PriorityTreeTest {
+
+    @Test
+    public void findsTheSlotOfAPrefixSum() {
+        //6 slots in a tree of capacity 8, slot 4 has no priority
+        PriorityTree tree = new PriorityTree(6);
+        double[] priorities = {1, 2, 3, 4, 0, 5};
+        for (int i = 0; i < priorities.length; i++)
+            tree.set(i, priorities[i]);
+
+        assertEquals(15, tree.sum(), 0);
+        assertEquals(0, tree.find(0));
+        assertEquals(0, tree.find(0.999));
+        assertEquals(1, tree.find(1));
+        assertEquals(1, tree.find(2.999));
+        assertEquals(2, tree.find(3));
+        assertEquals(3, tree.find(9.5));
+        assertEquals(5, tree.find(10));
+        assertEquals(5, tree.find(14.999));
+    }
+
+    @Test
+    public void keepsSumAndMinOnOverwrites() {
+        int size = 13;
+        PriorityTree tree = new PriorityTree(size);
+        double[] priorities = new double[size];
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            priorities[i] = 1;
+            tree.set(i, 1);
+        }
+
+        for (int step = 0; step < 500; step++) {
+            int slot = random.nextInt(size);
+            priorities[slot] = random.nextDouble() * 10;
+            tree.set(slot, priorities[slot]);
+
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            for (double priority : priorities) {
+                sum += priority;
+                min = Math.min(min, priority);
+            }
+            assertEquals(sum, tree.sum(), 1e-9);
+            assertEquals(min, tree.min(), 0);
+            assertEquals(priorities[slot], tree.get(slot), 0);
+        }
+
+        //the min is the one of the slots set, not of the empty leaves past them
+        for (int i = 0; i < size; i++)
+            tree.set(i, 3);
+        tree.set(7, 2);
+        assertEquals(2, tree.min(), 0);
+        tree.set(7, 5);
+        assertEquals(3, tree.min(), 0);
+        assertEquals(3 * (size - 1) + 5, tree.sum(), 1e-9);
+    }
+
+}
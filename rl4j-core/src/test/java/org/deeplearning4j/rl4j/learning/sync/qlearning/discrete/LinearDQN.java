@@ -0,0 +1,108 @@
+package org.deeplearning4j.rl4j.learning.sync.qlearning.discrete;
+
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.rl4j.network.NeuralNet;
+import org.deeplearning4j.rl4j.network.dqn.IDQN;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.OutputStream;
+
+/**
+ * A DQN without training, Q(s) = flattened s x weights with fixed weights,
+ * that keeps the last labels it is fitted on
+ */
+class LinearDQN implements IDQN {
+
+    final private INDArray weights;
+    private INDArray lastInput = null;
+    private INDArray lastLabels = null;
+
+    LinearDQN(int inputLength, int nbActions) {
+        this(inputLength, nbActions, 0);
+    }
+
+    /**
+     * @param seed other weights for another seed
+     */
+    LinearDQN(int inputLength, int nbActions, int seed) {
+        weights = Nd4j.create(inputLength, nbActions);
+        for (int i = 0; i < inputLength; i++)
+            for (int a = 0; a < nbActions; a++)
+                weights.putScalar(i, a, ((i * 7 + a * 3 + seed) % 11 - 5) / 10.0);
+    }
+
+    private LinearDQN(INDArray weights) {
+        this.weights = weights.dup();
+    }
+
+    public INDArray getLastInput() {
+        return lastInput;
+    }
+
+    public INDArray getLastLabels() {
+        return lastLabels;
+    }
+
+    public void fit(INDArray input, INDArray labels) {
+        lastInput = input.dup();
+        lastLabels = labels.dup();
+    }
+
+    public void fit(INDArray input, INDArray[] labels) {
+        fit(input, labels[0]);
+    }
+
+    public INDArray output(INDArray batch) {
+        return batch.dup().reshape(batch.size(0), weights.rows()).mmul(weights);
+    }
+
+    public INDArray[] outputAll(INDArray batch) {
+        return new INDArray[]{output(batch)};
+    }
+
+    @Override
+    public LinearDQN clone() {
+        return new LinearDQN(weights);
+    }
+
+    public void copy(NeuralNet from) {
+        weights.assign(((LinearDQN) from).weights);
+    }
+
+    public void softUpdate(NeuralNet from, double tau) {
+        weights.muli(1 - tau).addi(((LinearDQN) from).weights.mul(tau));
+    }
+
+    public Gradient[] gradient(INDArray input, INDArray label) {
+        throw new UnsupportedOperationException();
+    }
+
+    public Gradient[] gradient(INDArray input, INDArray[] label) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void applyGradient(Gradient[] gradient, int batchSize) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void applyUpdater(Gradient[] gradients, int batchSize) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void subUpdates(Gradient[] updates) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void save(OutputStream stream) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void save(String path) {
+        throw new UnsupportedOperationException();
+    }
+
+    public double getLatestScore() {
+        return 0;
+    }
+}
@@ -0,0 +1,195 @@
+package org.deeplearning4j.rl4j.learning.sync.qlearning.discrete;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.gym.StepReply;
+import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
+import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.rl4j.learning.sync.ExpReplayBatch;
+import org.deeplearning4j.rl4j.learning.sync.Transition;
+import org.deeplearning4j.rl4j.learning.sync.qlearning.QLConfiguration;
+import org.deeplearning4j.rl4j.learning.sync.qlearning.QLStatEntry;
+import org.deeplearning4j.rl4j.mdp.MDP;
+import org.deeplearning4j.rl4j.mdp.toy.SimpleToy;
+import org.deeplearning4j.rl4j.mdp.toy.SimpleToyState;
+import org.deeplearning4j.rl4j.network.dqn.IDQN;
+import org.deeplearning4j.rl4j.space.ArrayObservationSpace;
+import org.deeplearning4j.rl4j.space.DiscreteSpace;
+import org.deeplearning4j.rl4j.space.Encodable;
+import org.deeplearning4j.rl4j.space.ObservationSpace;
+import org.deeplearning4j.rl4j.util.DataManager;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QLearningDiscreteTest {
+
+    final private static int SIZE = 8;
+    final private static int HISTORY_LENGTH = 4;
+    final private static int INPUT_LENGTH = 4;
+    final private static int NB_ACTIONS = 3;
+    final private static double GAMMA = 0.9;
+    final private static double ERROR_CLAMP = 0.5;
+
+    @Test
+    public void vectorEpochWithHistory() {
+        int numEnvs = 3;
+        int episodeLength = 6;
+        IHistoryProcessor.Configuration hpConf =
+                new IHistoryProcessor.Configuration(HISTORY_LENGTH, SIZE, SIZE, SIZE, SIZE, 0, 0, 1, true);
+        QLConfiguration conf = new QLConfiguration(123, 100, 1000, 100, 4, 10, 0, 1.0, 0.99, 1.0, 0.1, 100, false)
+                .setNumEnvs(numEnvs);
+        LinearDQN dqn = new LinearDQN(HISTORY_LENGTH * SIZE * SIZE, 2);
+        QLearningDiscreteConv<FramesToy.State> learning = new QLearningDiscreteConv<>(
+                new FramesToy(episodeLength), dqn, hpConf, conf, new DataManager(false));
+
+        //the second epoch starts the next episodes of all the environments
+        for (int epoch = 1; epoch <= 2; epoch++) {
+            QLStatEntry stats = (QLStatEntry) learning.trainEpoch();
+            assertEquals(episodeLength, stats.getEpisodeLength());
+            assertEquals(epoch * episodeLength * numEnvs, learning.getStepCounter());
+        }
+
+        //trained on full histories from the first step
+        assertTrue(dqn.getLastLabels() != null);
+        assertArrayEquals(new int[]{4, HISTORY_LENGTH, SIZE, SIZE}, dqn.getLastInput().shape());
+    }
+
+    @Test
+    public void vectorizedTargetsMatchThePerRowTargets() {
+        for (boolean doubleDQN : new boolean[]{false, true})
+            for (boolean stackedForward : new boolean[]{false, true})
+                for (int size : new int[]{8, 5})
+                    checkTargets(doubleDQN, stackedForward, size);
+    }
+
+    @Test
+    public void noTargetsForAnEmptyBatch() {
+        QLearningDiscreteDense<SimpleToyState> learning = denseLearning(false, false);
+        ExpReplayBatch batch = new ExpReplayBatch(8, new int[]{INPUT_LENGTH});
+        batch.finish(0, false);
+        assertNull(learning.setTarget(batch));
+    }
+
+    //size transitions in a batch of 8, the rows past them hold other values
+    private void checkTargets(boolean doubleDQN, boolean stackedForward, int size) {
+        QLearningDiscreteDense<SimpleToyState> learning = denseLearning(doubleDQN, stackedForward);
+        IDQN current = learning.getCurrentDQN();
+        IDQN target = learning.getTargetDQN();
+
+        ExpReplayBatch batch = new ExpReplayBatch(8, new int[]{INPUT_LENGTH});
+        batch.getStacked().assign(100);
+        for (int i = 0; i < size; i++)
+            batch.put(i, transition(i), i);
+        batch.finish(size, false);
+
+        Pair<INDArray, INDArray> targets = learning.setTarget(batch);
+        assertArrayEquals(new int[]{size, NB_ACTIONS}, targets.getSecond().shape());
+
+        //the targets computed one transition at a time
+        for (int i = 0; i < size; i++) {
+            Transition<Integer> transition = transition(i);
+            INDArray obs = transition.getObservation()[0];
+            INDArray next = transition.getNextObservation();
+            INDArray q = current.output(obs);
+            INDArray nextQ = current.output(next);
+
+            int maxAction = Learning.getMaxAction(nextQ);
+            double nextV = doubleDQN ? target.output(next).getDouble(maxAction) : nextQ.getDouble(maxAction);
+            double yTar = transition.getReward() + (transition.isTerminal() ? 0 : GAMMA * nextV);
+            double previousV = q.getDouble(transition.getAction());
+            double clamped = Math.min(previousV + ERROR_CLAMP, Math.max(yTar, previousV - ERROR_CLAMP));
+
+            assertArrayEquals(obs.dup().data().asFloat(), targets.getFirst().getRow(i).dup().data().asFloat(), 0f);
+            for (int a = 0; a < NB_ACTIONS; a++) {
+                double expected = a == transition.getAction() ? clamped : q.getDouble(a);
+                assertEquals(expected, targets.getSecond().getDouble(i, a), 1e-5);
+            }
+        }
+    }
+
+    private static QLearningDiscreteDense<SimpleToyState> denseLearning(boolean doubleDQN, boolean stackedForward) {
+        QLConfiguration conf = new QLConfiguration(123, 100, 1000, 100, 8, 10, 0, 1.0, GAMMA, ERROR_CLAMP, 0.1, 100,
+                doubleDQN).setStackedForward(stackedForward);
+        QLearningDiscreteDense<SimpleToyState> learning = new QLearningDiscreteDense<>(new SimpleToy(10),
+                new LinearDQN(INPUT_LENGTH, NB_ACTIONS), conf, new DataManager(false));
+        learning.setTargetDQN(new LinearDQN(INPUT_LENGTH, NB_ACTIONS, 5));
+        return learning;
+    }
+
+    private static Transition<Integer> transition(int id) {
+        float[] obs = new float[INPUT_LENGTH];
+        float[] next = new float[INPUT_LENGTH];
+        for (int j = 0; j < INPUT_LENGTH; j++) {
+            obs[j] = ((id * 5 + j * 3) % 7) / 2f;
+            next[j] = ((id * 3 + j * 5) % 7) / 2f;
+        }
+        return new Transition<>(new INDArray[]{Nd4j.create(obs, new int[]{1, INPUT_LENGTH})}, id % NB_ACTIONS,
+                id % 4 - 1.5, id % 3 == 2, Nd4j.create(next, new int[]{1, INPUT_LENGTH}));
+    }
+
+    //episodes of RGB frames of SIZE x SIZE, all different
+    static class FramesToy implements MDP<FramesToy.State, Integer, DiscreteSpace> {
+
+        final private int length;
+        final private DiscreteSpace actionSpace = new DiscreteSpace(2);
+        final private ObservationSpace<State> observationSpace =
+                new ArrayObservationSpace<>(new int[]{SIZE, SIZE, 3});
+        private int step = 0;
+        private int frame = 0;
+
+        FramesToy(int length) {
+            this.length = length;
+        }
+
+        public ObservationSpace<State> getObservationSpace() {
+            return observationSpace;
+        }
+
+        public DiscreteSpace getActionSpace() {
+            return actionSpace;
+        }
+
+        public State reset() {
+            step = 0;
+            return new State(frame++);
+        }
+
+        public void close() {
+        }
+
+        public StepReply<State> step(Integer action) {
+            step++;
+            return new StepReply<>(new State(frame++), action, isDone(), new JSONObject("{}"));
+        }
+
+        public boolean isDone() {
+            return step == length;
+        }
+
+        public FramesToy newInstance() {
+            return new FramesToy(length);
+        }
+
+        static class State implements Encodable {
+            final private int frame;
+
+            State(int frame) {
+                this.frame = frame;
+            }
+
+            public double[] toArray() {
+                double[] pixels = new double[SIZE * SIZE * 3];
+                for (int i = 0; i < pixels.length; i++)
+                    pixels[i] = (frame * 31 + i) % 256;
+                return pixels;
+            }
+        }
+    }
+
+}
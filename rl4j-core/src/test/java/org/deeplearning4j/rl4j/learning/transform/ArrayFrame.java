@@ -0,0 +1,40 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+//an input frame over pixels[y][x][c]
+class ArrayFrame implements Frame {
+
+    final private float[][][] pixels;
+
+    ArrayFrame(float[][][] pixels) {
+        this.pixels = pixels;
+    }
+
+    //a single channel frame
+    static ArrayFrame gray(float[][] rows) {
+        float[][][] pixels = new float[rows.length][rows[0].length][1];
+        for (int y = 0; y < rows.length; y++)
+            for (int x = 0; x < rows[y].length; x++)
+                pixels[y][x][0] = rows[y][x];
+        return new ArrayFrame(pixels);
+    }
+
+    public int getHeight() {
+        return pixels.length;
+    }
+
+    public int getWidth() {
+        return pixels[0].length;
+    }
+
+    public int getChannels() {
+        return pixels[0][0].length;
+    }
+
+    public float get(int y, int x, int c) {
+        return pixels[y][x][c];
+    }
+
+    public void prepare() {
+    }
+
+}
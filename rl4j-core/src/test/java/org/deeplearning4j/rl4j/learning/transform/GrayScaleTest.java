@@ -0,0 +1,33 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GrayScaleTest {
+
+    //outputs of cvtColor(COLOR_RGB2GRAY) on uint8
+    @Test
+    public void fixedPointMatchesOpenCV() {
+        float[][] rgb = {{255, 0, 0}, {0, 255, 0}, {0, 0, 255}, {255, 255, 255},
+                {0, 0, 0}, {128, 128, 128}, {100, 150, 200}, {1, 1, 2}};
+        float[] gray = {76, 150, 29, 255, 0, 128, 141, 1};
+
+        Frame frame = new GrayScale(true).apply(new ArrayFrame(new float[][][] {rgb}));
+        assertEquals(1, frame.getChannels());
+        for (int x = 0; x < rgb.length; x++)
+            assertEquals("pixel " + x, gray[x], frame.get(0, x, 0), 0);
+    }
+
+    @Test
+    public void floatIsNotRounded() {
+        Frame frame = new GrayScale().apply(new ArrayFrame(new float[][][] {{{100, 150, 200}}}));
+        assertEquals(140.75f, frame.get(0, 0, 0), 1e-3f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void needsThreeChannels() {
+        new GrayScale(true).apply(ArrayFrame.gray(new float[][] {{0}}));
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.deeplearning4j.rl4j.learning.transform;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResizeTest {
+
+    //outputs of resize(INTER_LINEAR) of OpenCV on uint8
+    @Test
+    public void fixedPointMatchesOpenCV() {
+        assertRows(new float[][] {{0, 25, 75, 100}}, new Resize(4, 1, true).apply(ArrayFrame.gray(new float[][] {{0, 100}})));
+        //127.5 rounded up
+        assertRows(new float[][] {{0, 128, 255}}, new Resize(3, 1, true).apply(ArrayFrame.gray(new float[][] {{0, 255}})));
+        assertRows(new float[][] {{0}, {64}, {191}, {255}},
+                new Resize(1, 4, true).apply(ArrayFrame.gray(new float[][] {{0}, {255}})));
+    }
+
+    //an exact halving is an area resize in OpenCV, each 2x2 block averaged and rounded half up
+    @Test
+    public void fixedPointHalvingMatchesOpenCV() {
+        Frame input = ArrayFrame.gray(new float[][] {
+                {0, 1, 1, 1, 255, 255},
+                {2, 3, 1, 2, 255, 254},
+                {10, 20, 0, 0, 7, 8},
+                {30, 40, 0, 1, 9, 9}});
+        assertRows(new float[][] {{2, 1, 255}, {25, 0, 8}}, new Resize(3, 2, true).apply(input));
+    }
+
+    //other integer ratios stay bilinear: the middle pixel of each block of 3
+    @Test
+    public void fixedPointOtherRatiosStayBilinear() {
+        assertRows(new float[][] {{0, 0}}, new Resize(2, 1, true).apply(ArrayFrame.gray(new float[][] {{0, 0, 90, 0, 0, 90}})));
+        assertRows(new float[][] {{30, 120}},
+                new Resize(2, 1, true).apply(ArrayFrame.gray(new float[][] {{0, 30, 60, 90, 120, 150}})));
+    }
+
+    @Test
+    public void floatIsNotRounded() {
+        assertRows(new float[][] {{0, 127.5f, 255}}, new Resize(3, 1).apply(ArrayFrame.gray(new float[][] {{0, 255}})));
+    }
+
+    private static void assertRows(float[][] expected, Frame frame) {
+        assertEquals(expected.length, frame.getHeight());
+        assertEquals(expected[0].length, frame.getWidth());
+        frame.prepare();
+        for (int y = 0; y < expected.length; y++)
+            for (int x = 0; x < expected[y].length; x++)
+                assertEquals("pixel (" + y + ", " + x + ")", expected[y][x], frame.get(y, x, 0), 1e-4f);
+    }
+
+}
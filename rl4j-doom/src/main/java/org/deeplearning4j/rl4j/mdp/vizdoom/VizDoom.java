@@ -3,8 +3,8 @@ package org.deeplearning4j.rl4j.mdp.vizdoom;
 import org.deeplearning4j.gym.StepReply;
 import org.deeplearning4j.rl4j.mdp.MDP;
 import org.deeplearning4j.rl4j.space.ArrayObservationSpace;
+import org.deeplearning4j.rl4j.space.BufferEncodable;
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
-import org.deeplearning4j.rl4j.space.Encodable;
 import org.deeplearning4j.rl4j.space.ObservationSpace;
 
 import org.slf4j.Logger;
@@ -14,6 +14,7 @@ import oshi.hardware.GlobalMemory;
 import oshi.util.FormatUtil;
 import vizdoom.*;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -275,17 +276,30 @@ public abstract class VizDoom implements MDP<VizDoom.GameScreen, Integer, Discre
         }
     }
 
-    public static class GameScreen implements Encodable {
-        final private double[] array;
+    /**
+     * Keeps the screen of the game as is, and writes it straight into the input of the networks
+     */
+    public static class GameScreen implements BufferEncodable {
+        final private int[] screen;
+        private double[] array = null;
 
         GameScreen(int[] screen) {
-            array = new double[screen.length];
+            this.screen = screen;
+        }
+
+        public void encode(FloatBuffer buffer, int offset) {
             for (int i = 0; i < screen.length; i++) {
-                array[i] = screen[i];
+                buffer.put(offset + i, screen[i]);
             }
         }
 
         public double[] toArray() {
+            if (array == null) {
+                array = new double[screen.length];
+                for (int i = 0; i < screen.length; i++) {
+                    array[i] = screen[i];
+                }
+            }
             return array;
         }
     }